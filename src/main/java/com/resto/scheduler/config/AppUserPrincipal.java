@@ -0,0 +1,103 @@
+package com.resto.scheduler.config;
+
+import com.resto.scheduler.model.AppUser;
+import com.resto.scheduler.model.Role;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.CredentialsContainer;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import java.io.Serial;
+import java.util.Collection;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * The logged-in user as stored in the session: id, profile and roles copied from AppUser at
+ * login, so controllers and views can identify the current user without a query.
+ * Entity lookups go through AppUserRepository#getReferenceById(getId()).
+ * PrincipalRefreshFilter swaps in a fresh copy after an admin changes the user.
+ */
+public class AppUserPrincipal implements UserDetails, CredentialsContainer {
+
+    @Serial
+    private static final long serialVersionUID = 1L;
+
+    private final Long id;
+    private final String username;
+    private String password;
+    private final String fullName;
+    private final String phoneNumber;
+    private final boolean enabled;
+    private final Set<String> roles;
+    private final Set<GrantedAuthority> authorities;
+    private final long loadedAt;
+
+    private AppUserPrincipal(AppUser u) {
+        this.id = u.getId();
+        this.username = u.getUsername();
+        this.password = u.getPassword();
+        this.fullName = u.getFullName();
+        this.phoneNumber = u.getPhoneNumber();
+        this.enabled = u.isEnabled();
+        this.roles = u.getRoles() == null ? Set.of()
+                : u.getRoles().stream().map(Role::getName).collect(Collectors.toUnmodifiableSet());
+        this.authorities = roles.stream()
+                .map(r -> new SimpleGrantedAuthority("ROLE_" + r))
+                .collect(Collectors.toUnmodifiableSet());
+        this.loadedAt = System.currentTimeMillis();
+    }
+
+    public static AppUserPrincipal from(AppUser u) {
+        return new AppUserPrincipal(u);
+    }
+
+    /** The principal of an authenticated request; fails for anonymous or foreign tokens. */
+    public static AppUserPrincipal of(Authentication auth) {
+        if (auth != null && auth.getPrincipal() instanceof AppUserPrincipal p) {
+            return p;
+        }
+        throw new IllegalStateException("No authenticated user");
+    }
+
+    public Long getId() { return id; }
+    public String getFullName() { return fullName; }
+    public String getPhoneNumber() { return phoneNumber; }
+    public Set<String> getRoles() { return roles; }
+    public long getLoadedAt() { return loadedAt; }
+
+    public boolean hasRole(String role) {
+        return roles.contains(role);
+    }
+
+    @Override public String getUsername() { return username; }
+    @Override public String getPassword() { return password; }
+    @Override public Collection<? extends GrantedAuthority> getAuthorities() { return authorities; }
+    @Override public boolean isEnabled() { return enabled; }
+    @Override public boolean isAccountNonExpired() { return true; }
+    @Override public boolean isAccountNonLocked() { return true; }
+    @Override public boolean isCredentialsNonExpired() { return true; }
+
+    // Called by the AuthenticationManager after login so the hash never sits in the session
+    @Override
+    public void eraseCredentials() {
+        password = null;
+    }
+
+    // Same user, same principal (session registry / concurrency control compare these)
+    @Override
+    public boolean equals(Object o) {
+        return o instanceof AppUserPrincipal p && username.equals(p.username);
+    }
+
+    @Override
+    public int hashCode() {
+        return username.hashCode();
+    }
+
+    @Override
+    public String toString() {
+        return "AppUserPrincipal[id=" + id + ", username=" + username + ", roles=" + roles + "]";
+    }
+}
@@ -3,16 +3,40 @@ package com.resto.scheduler.config;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Lazy;
 import software.amazon.awssdk.regions.Region;
+import software.amazon.awssdk.services.sns.SnsAsyncClient;
 import software.amazon.awssdk.services.sns.SnsClient;
 
+import java.net.URI;
+
 @Configuration
 public class AwsSnsConfig {
 
     @Bean
-    public SnsClient snsClient(@Value("${aws.region}") String region) {
-        return SnsClient.builder()
-                .region(Region.of(region))
-                .build();
+    public SnsClient snsClient(@Value("${aws.region}") String region,
+                               @Value("${aws.sns.endpoint:}") String endpoint) {
+        var builder = SnsClient.builder()
+                .region(Region.of(region));
+        if (!endpoint.isBlank()) {
+            builder.endpointOverride(URI.create(endpoint));
+        }
+        return builder.build();
+    }
+
+    /**
+     * Non-blocking client for app.sms.provider=sns-async; only created when that provider is used.
+     * aws.sns.endpoint points both clients at a local HTTP stub instead of SNS.
+     */
+    @Bean
+    @Lazy
+    public SnsAsyncClient snsAsyncClient(@Value("${aws.region}") String region,
+                                         @Value("${aws.sns.endpoint:}") String endpoint) {
+        var builder = SnsAsyncClient.builder()
+                .region(Region.of(region));
+        if (!endpoint.isBlank()) {
+            builder.endpointOverride(URI.create(endpoint));
+        }
+        return builder.build();
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,66 @@
+package com.resto.scheduler.config;
+
+import com.resto.scheduler.model.AppUser;
+import com.resto.scheduler.repository.AppUserRepository;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpSession;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.web.context.HttpSessionSecurityContextRepository;
+import org.springframework.security.web.context.SecurityContextRepository;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.Optional;
+
+/**
+ * Replaces a stale AppUserPrincipal (see PrincipalRefresher) with one re-read from app_user and
+ * saves it to the session. A user who was disabled or deleted is logged out instead, so the
+ * rest of the chain treats the request as anonymous.
+ * Not a bean on purpose: SecurityConfig adds it to the security chain only.
+ */
+public class PrincipalRefreshFilter extends OncePerRequestFilter {
+
+    private final AppUserRepository users;
+    private final PrincipalRefresher refresher;
+    private final SecurityContextRepository contextRepository = new HttpSessionSecurityContextRepository();
+
+    public PrincipalRefreshFilter(AppUserRepository users, PrincipalRefresher refresher) {
+        this.users = users;
+        this.refresher = refresher;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request,
+                                    HttpServletResponse response,
+                                    FilterChain chain) throws ServletException, IOException {
+        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
+        if (auth != null && auth.getPrincipal() instanceof AppUserPrincipal p && refresher.isStale(p)) {
+            Optional<AppUser> current = users.findById(p.getId());
+            if (current.isEmpty() || !current.get().isEnabled()) {
+                SecurityContextHolder.clearContext();
+                HttpSession session = request.getSession(false);
+                if (session != null) {
+                    session.invalidate();
+                }
+            } else {
+                AppUserPrincipal fresh = AppUserPrincipal.from(current.get());
+                fresh.eraseCredentials();
+                UsernamePasswordAuthenticationToken token =
+                        UsernamePasswordAuthenticationToken.authenticated(fresh, null, fresh.getAuthorities());
+                token.setDetails(auth.getDetails());
+
+                SecurityContext context = SecurityContextHolder.createEmptyContext();
+                context.setAuthentication(token);
+                SecurityContextHolder.setContext(context);
+                contextRepository.saveContext(context, request, response);
+            }
+        }
+        chain.doFilter(request, response);
+    }
+}
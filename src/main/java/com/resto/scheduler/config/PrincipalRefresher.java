@@ -0,0 +1,39 @@
+package com.resto.scheduler.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Decides when a session's AppUserPrincipal is out of date.
+ * AdminController calls markChanged after editing a user, which makes every principal of that
+ * user loaded before then stale on its next request. The map is per node, so principals are
+ * also re-read once they are older than app.security.principal-max-age-ms; that bounds how
+ * long a change made on another node can go unseen.
+ */
+@Component
+public class PrincipalRefresher {
+
+    private final long maxAgeMs;
+    private final ConcurrentHashMap<Long, Long> changedAt = new ConcurrentHashMap<>();
+
+    public PrincipalRefresher(@Value("${app.security.principal-max-age-ms:300000}") long maxAgeMs) {
+        this.maxAgeMs = maxAgeMs;
+    }
+
+    public void markChanged(Long userId) {
+        if (userId != null) {
+            changedAt.put(userId, System.currentTimeMillis());
+        }
+    }
+
+    public boolean isStale(AppUserPrincipal p) {
+        long loadedAt = p.getLoadedAt();
+        if (maxAgeMs > 0 && System.currentTimeMillis() - loadedAt > maxAgeMs) {
+            return true;
+        }
+        Long changed = changedAt.get(p.getId());
+        return changed != null && changed >= loadedAt;
+    }
+}
@@ -1,28 +1,31 @@
 package com.resto.scheduler.config;
 
 import com.resto.scheduler.repository.AppUserRepository;
-import com.resto.scheduler.model.AppUser;
-import com.resto.scheduler.model.Role;
+import jakarta.servlet.DispatcherType;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
-import org.springframework.security.core.authority.SimpleGrantedAuthority;
-import org.springframework.security.core.userdetails.User;
 import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
+import org.springframework.security.web.context.SecurityContextHolderFilter;
 import org.springframework.security.web.util.matcher.AntPathRequestMatcher;
 
-import java.util.stream.Collectors;
-
 @Configuration
 public class SecurityConfig {
 
   @Bean
-  public SecurityFilterChain filterChain(HttpSecurity http) throws Exception {
+  public SecurityFilterChain filterChain(HttpSecurity http,
+                                         AppUserRepository users,
+                                         PrincipalRefresher principalRefresher) throws Exception {
     http
+            // Right after the session's context is loaded, before anything authorizes against it
+            .addFilterAfter(new PrincipalRefreshFilter(users, principalRefresher), SecurityContextHolderFilter.class)
             .authorizeHttpRequests(auth -> auth
+                    // Async dispatches (SSE stream completion) resume a request already authorized
+                    .dispatcherTypeMatchers(DispatcherType.ASYNC).permitAll()
                     .requestMatchers("/", "/login", "/sms-policy", "/test-sms", "/css/**", "/webjars/**").permitAll()
                     .requestMatchers("/admin/**").hasRole("MANAGER")
                     .requestMatchers("/manager/**").hasRole("MANAGER")
@@ -49,18 +52,9 @@ public class SecurityConfig {
 
   @Bean
   public UserDetailsService userDetailsService(AppUserRepository users) {
-    return username -> {
-      AppUser u = users.findByUsername(username).orElseThrow(() -> new RuntimeException("User not found"));
-      return new User(
-              u.getUsername(),
-              u.getPassword(),
-              u.isEnabled(),
-              true, true, true,
-              u.getRoles().stream()
-                      .map(Role::getName)
-                      .map(r -> new SimpleGrantedAuthority("ROLE_" + r))
-                      .collect(Collectors.toSet())
-      );
-    };
+    // The principal carries id, profile and roles so requests don't look the user up again
+    return username -> users.findByUsername(username)
+            .map(AppUserPrincipal::from)
+            .orElseThrow(() -> new UsernameNotFoundException("User not found"));
   }
 }
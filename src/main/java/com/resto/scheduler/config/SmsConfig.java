@@ -2,10 +2,14 @@ package com.resto.scheduler.config;
 
 import com.resto.scheduler.service.SmsService;
 import com.resto.scheduler.service.impl.LoggingSmsService;
+import com.resto.scheduler.service.impl.SimulatedSmsService;
+import com.resto.scheduler.service.impl.SnsAsyncSmsService;
 import com.resto.scheduler.service.impl.SnsSmsService;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import software.amazon.awssdk.services.sns.SnsAsyncClient;
 import software.amazon.awssdk.services.sns.SnsClient;
 
 @Configuration
@@ -14,12 +18,27 @@ public class SmsConfig {
     @Bean
     public SmsService smsService(
             @Value("${app.sms.provider:logging}") String provider,
+            @Value("${app.sms.simulated.latency-ms:200}") long simulatedLatencyMs,
+            @Value("${app.sms.simulated.latency-p99-ms:${app.sms.simulated.latency-ms:200}}") long simulatedLatencyP99Ms,
+            @Value("${app.sms.simulated.failure-rate:0}") double simulatedFailureRate,
+            @Value("${app.sms.simulated.error-rate:0}") double simulatedErrorRate,
+            @Value("${app.sms.simulated.throttle-tps:0}") int simulatedThrottleTps,
+            @Value("${app.sms.simulated.buffer-size:1000}") int simulatedBufferSize,
             LoggingSmsService loggingSmsService,
-            SnsClient snsClient
+            SnsClient snsClient,
+            ObjectProvider<SnsAsyncClient> snsAsyncClient
     ) {
         if ("sns".equalsIgnoreCase(provider)) {
             return new SnsSmsService(snsClient);
         }
+        if ("sns-async".equalsIgnoreCase(provider)) {
+            return new SnsAsyncSmsService(snsAsyncClient.getObject());
+        }
+        if ("simulated".equalsIgnoreCase(provider)) {
+            return new SimulatedSmsService(new SimulatedSmsService.Settings(
+                    simulatedLatencyMs, simulatedLatencyP99Ms, simulatedFailureRate,
+                    simulatedErrorRate, simulatedThrottleTps, simulatedBufferSize));
+        }
 
         return loggingSmsService;
     }
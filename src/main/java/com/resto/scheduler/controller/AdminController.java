@@ -1,11 +1,16 @@
 package com.resto.scheduler.controller;
 
+import com.resto.scheduler.config.PrincipalRefresher;
 import com.resto.scheduler.model.AppUser;
 import com.resto.scheduler.model.Role;
 import com.resto.scheduler.repository.AppUserRepository;
 import com.resto.scheduler.repository.RoleRepository;
 import com.resto.scheduler.repository.AssignmentRepository;
 import com.resto.scheduler.repository.AvailabilityRepository;
+import com.resto.scheduler.service.AssignmentsChangedEvent;
+import com.resto.scheduler.service.AvailabilityService;
+import com.resto.scheduler.service.CandidateIndex;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Controller;
@@ -26,17 +31,29 @@ public class AdminController {
     private final PasswordEncoder encoder;
     private final AssignmentRepository assignmentRepo;
     private final AvailabilityRepository availabilityRepo;
+    private final AvailabilityService availabilityService;
+    private final CandidateIndex candidateIndex;
+    private final ApplicationEventPublisher events;
+    private final PrincipalRefresher principalRefresher;
 
     public AdminController(AppUserRepository userRepo,
                            RoleRepository roleRepo,
                            PasswordEncoder encoder,
                            AssignmentRepository assignmentRepo,
-                           AvailabilityRepository availabilityRepo) {
+                           AvailabilityRepository availabilityRepo,
+                           AvailabilityService availabilityService,
+                           CandidateIndex candidateIndex,
+                           ApplicationEventPublisher events,
+                           PrincipalRefresher principalRefresher) {
         this.userRepo = userRepo;
         this.roleRepo = roleRepo;
         this.encoder = encoder;
         this.assignmentRepo = assignmentRepo;
         this.availabilityRepo = availabilityRepo;
+        this.availabilityService = availabilityService;
+        this.candidateIndex = candidateIndex;
+        this.events = events;
+        this.principalRefresher = principalRefresher;
     }
 
     @GetMapping
@@ -111,6 +128,7 @@ public class AdminController {
         u.setRoles(Set.of(role)); // exactly one role
 
         userRepo.save(u);
+        candidateIndex.invalidateRoster();
         return "redirect:/admin/users?created";
     }
 
@@ -136,6 +154,9 @@ public class AdminController {
 
         u.setEnabled(nextEnabled);
         userRepo.save(u);
+        candidateIndex.invalidateRoster();
+        // Their session principal is re-read on its next request (a disabled user is logged out)
+        principalRefresher.markChanged(u.getId());
         return "redirect:/admin/users?toggled";
     }
 
@@ -162,6 +183,10 @@ public class AdminController {
         availabilityRepo.deleteByUser(u);
 
         userRepo.delete(u);
+        availabilityService.invalidate();
+        candidateIndex.invalidateRoster();
+        principalRefresher.markChanged(id);
+        events.publishEvent(AssignmentsChangedEvent.all());
         return "redirect:/admin/users?deleted";
     }
 }
@@ -1,24 +1,25 @@
 package com.resto.scheduler.controller;
 
+import com.resto.scheduler.config.AppUserPrincipal;
 import com.resto.scheduler.model.AppUser;
 import com.resto.scheduler.model.Assignment;
 import com.resto.scheduler.model.Availability;
 import com.resto.scheduler.model.PublishedAssignment;
-import com.resto.scheduler.model.SchedulePeriod;
 import com.resto.scheduler.model.Shift;
 import com.resto.scheduler.repository.AppUserRepository;
 import com.resto.scheduler.repository.AssignmentRepository;
 import com.resto.scheduler.repository.AvailabilityRepository;
 import com.resto.scheduler.repository.PublishedAssignmentRepository;
-import com.resto.scheduler.repository.SchedulePeriodRepository;
+import com.resto.scheduler.service.AvailabilityService;
+import com.resto.scheduler.service.PostedPeriodIndex;
 import com.resto.scheduler.service.ScheduleViewService;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.web.bind.annotation.*;
 import com.resto.scheduler.model.enums.RequestStatus;
 
 import java.time.ZoneId;
-import java.security.Principal;
 import java.time.DayOfWeek;
 import java.time.LocalDate;
 import java.util.*;
@@ -32,7 +33,8 @@ public class EmployeeController {
   private final AssignmentRepository assignmentRepo; // kept (used elsewhere)
   private final ScheduleViewService scheduleViewService;
   private final PublishedAssignmentRepository publishedAssignmentRepo;
-  private final SchedulePeriodRepository schedulePeriodRepo;
+  private final PostedPeriodIndex postedPeriodIndex;
+  private final AvailabilityService availabilityService;
   private static final ZoneId APP_ZONE = ZoneId.of("America/Los_Angeles");
 
   public EmployeeController(AppUserRepository userRepo,
@@ -40,23 +42,25 @@ public class EmployeeController {
                             AssignmentRepository assignmentRepo,
                             ScheduleViewService scheduleViewService,
                             PublishedAssignmentRepository publishedAssignmentRepo,
-                            SchedulePeriodRepository schedulePeriodRepo) {
+                            PostedPeriodIndex postedPeriodIndex,
+                            AvailabilityService availabilityService) {
     this.userRepo = userRepo;
     this.availabilityRepo = availabilityRepo;
     this.assignmentRepo = assignmentRepo;
     this.scheduleViewService = scheduleViewService;
     this.publishedAssignmentRepo = publishedAssignmentRepo;
-    this.schedulePeriodRepo = schedulePeriodRepo;
+    this.postedPeriodIndex = postedPeriodIndex;
+    this.availabilityService = availabilityService;
   }
 
   // === Availability (Tue–Sat) ===
   @GetMapping("/availability")
-  public String availabilityForm(Model model, Principal principal) {
+  public String availabilityForm(Model model, @AuthenticationPrincipal AppUserPrincipal me) {
     List<DayOfWeek> weekdays = List.of(
             DayOfWeek.TUESDAY, DayOfWeek.WEDNESDAY, DayOfWeek.THURSDAY, DayOfWeek.FRIDAY, DayOfWeek.SATURDAY
     );
 
-    AppUser user = userRepo.findByUsername(principal.getName()).orElseThrow();
+    AppUser user = userRepo.getReferenceById(me.getId());
 
     List<Availability> rows = availabilityRepo.findByUser(user);
 
@@ -99,7 +103,7 @@ public class EmployeeController {
     }
 
     // === Manager-only: pending availability requests from other users ===
-    boolean isManager = user.getRoles().stream().anyMatch(r -> "MANAGER".equals(r.getName()));
+    boolean isManager = me.hasRole("MANAGER");
     List<AppUser> pendingUsers = new ArrayList<>();
     Map<Long, Map<String, Availability>> pendingAvailabilities = new HashMap<>();
 
@@ -139,8 +143,8 @@ public class EmployeeController {
   }
 
   @PostMapping("/availability")
-  public String saveAvailability(@RequestParam Map<String, String> params, Principal principal) {
-    AppUser user = userRepo.findByUsername(principal.getName()).orElseThrow();
+  public String saveAvailability(@RequestParam Map<String, String> params, @AuthenticationPrincipal AppUserPrincipal me) {
+    AppUser user = userRepo.getReferenceById(me.getId());
 
     for (DayOfWeek d : List.of(
             DayOfWeek.TUESDAY, DayOfWeek.WEDNESDAY, DayOfWeek.THURSDAY, DayOfWeek.FRIDAY, DayOfWeek.SATURDAY)) {
@@ -166,6 +170,8 @@ public class EmployeeController {
 
       availabilityRepo.save(a);
     }
+    // Rows are PENDING now, so they drop out of the approved index until a manager decides
+    availabilityService.invalidate();
 
     // For now we keep the same query flag; later we can show a nicer "pending" message in the template.
     return "redirect:/employee/availability?saved";
@@ -195,19 +201,16 @@ public class EmployeeController {
     LocalDate periodStart;
     boolean isPosted;
 
-    var spOpt = schedulePeriodRepo.findPostedContaining(anchor);
-    if (spOpt.isPresent()) {
-      SchedulePeriod sp = spOpt.get();
-      periodStart = sp.getStartDate(); // use the real period start
-      isPosted = "POSTED".equalsIgnoreCase(sp.getStatus());
+    var postedOpt = postedPeriodIndex.containing(anchor);
+    if (postedOpt.isPresent()) {
+      periodStart = postedOpt.get().startDate(); // use the real period start
+      isPosted = true;
     } else {
       // 2) No posted period contains this date:
       //    fall back to a generic 2-week window anchored on Monday,
       //    and check if THAT window happens to be a posted period.
       periodStart = scheduleViewService.mondayOf(anchor);
-      isPosted = schedulePeriodRepo.findByStartDate(periodStart)
-              .map(sp -> "POSTED".equalsIgnoreCase(sp.getStatus()))
-              .orElse(false);
+      isPosted = scheduleViewService.isPostedStart(periodStart);
     }
 
     LocalDate week2Start   = periodStart.plusWeeks(1);
@@ -1,5 +1,6 @@
 package com.resto.scheduler.controller;
 
+import com.resto.scheduler.config.AppUserPrincipal;
 import com.resto.scheduler.model.AppUser;
 import com.resto.scheduler.model.Request;
 import com.resto.scheduler.repository.AppUserRepository;
@@ -100,7 +101,8 @@ public class EmployeeRequestController {
         return "redirect:/employee/requests?confirmed";
     }
 
+    // Id from the session principal; the row itself loads only if something reads it
     private AppUser me(Authentication auth) {
-        return userRepo.findByUsername(auth.getName()).orElseThrow();
+        return userRepo.getReferenceById(AppUserPrincipal.of(auth).getId());
     }
 }
@@ -1,10 +1,9 @@
 package com.resto.scheduler.controller;
 
-import com.resto.scheduler.model.AppUser;
-import com.resto.scheduler.repository.AppUserRepository;
-import com.resto.scheduler.repository.NotificationRepository;
-import org.springframework.security.core.Authentication;
-import org.springframework.stereotype.Controller;
+import com.resto.scheduler.config.AppUserPrincipal;
+import com.resto.scheduler.service.UnreadCountCache;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.ControllerAdvice;
 import org.springframework.web.bind.annotation.ModelAttribute;
 import org.springframework.ui.Model;
@@ -12,13 +11,14 @@ import org.springframework.ui.Model;
 @ControllerAdvice
 public class GlobalModelAttributes {
 
-    private final AppUserRepository userRepo;
-    private final NotificationRepository notificationRepo;
+    // The badge stream renders no view; a seed query there would pin a pooled connection
+    // (open-in-view) for the life of the async request
+    private static final String STREAM_PATH = "/notifications/stream";
 
-    public GlobalModelAttributes(AppUserRepository userRepo,
-                                 NotificationRepository notificationRepo) {
-        this.userRepo = userRepo;
-        this.notificationRepo = notificationRepo;
+    private final UnreadCountCache unreadCountCache;
+
+    public GlobalModelAttributes(UnreadCountCache unreadCountCache) {
+        this.unreadCountCache = unreadCountCache;
     }
 
     /**
@@ -26,17 +26,14 @@ public class GlobalModelAttributes {
      * If the user is not logged in, the attribute may be absent or 0.
      */
     @ModelAttribute
-    public void addGlobalAttributes(Model model, Authentication auth) {
-        if (auth == null || !auth.isAuthenticated()) {
-            return;
-        }
-
-        AppUser me = userRepo.findByUsername(auth.getName()).orElse(null);
-        if (me == null) {
+    public void addGlobalAttributes(Model model, @AuthenticationPrincipal AppUserPrincipal me,
+                                    HttpServletRequest request) {
+        // null when anonymous; the id comes from the session and the count from memory
+        if (me == null || STREAM_PATH.equals(request.getServletPath())) {
             return;
         }
 
-        long unreadCount = notificationRepo.countByRecipientAndReadIsFalse(me);
+        long unreadCount = unreadCountCache.get(me.getId());
         model.addAttribute("notificationUnreadCount", unreadCount);
     }
 }
@@ -2,7 +2,6 @@ package com.resto.scheduler.controller;
 
 import com.resto.scheduler.model.AppUser;
 import com.resto.scheduler.model.Assignment;
-import com.resto.scheduler.model.SchedulePeriod;
 import com.resto.scheduler.model.Shift;
 import com.resto.scheduler.model.enums.Position;
 import com.resto.scheduler.model.enums.ShiftPeriod;
@@ -12,7 +11,19 @@ import org.springframework.ui.Model;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.servlet.mvc.support.RedirectAttributes;
 import org.springframework.format.annotation.DateTimeFormat;
+import com.resto.scheduler.service.AutoScheduleService;
+import com.resto.scheduler.service.AvailabilityService;
+import com.resto.scheduler.service.CopyForwardService;
+import com.resto.scheduler.service.DayScheduleAssembler;
+import com.resto.scheduler.service.DayScheduleWriter;
+import com.resto.scheduler.service.PostedPeriodIndex;
+import com.resto.scheduler.service.ScheduleRoles;
+import com.resto.scheduler.service.ScheduleRoles.RoleOption;
 import com.resto.scheduler.service.RequestService;
+import com.resto.scheduler.service.ScheduleConflictService;
+import com.resto.scheduler.service.ScheduleCoverageService;
+import com.resto.scheduler.service.SlotSuggestionService;
+import com.resto.scheduler.service.TimeOffIndex;
 import com.resto.scheduler.model.enums.RequestStatus;
 import com.resto.scheduler.model.Availability;
 
@@ -28,31 +39,53 @@ import java.util.*;
 @RequestMapping("/manager")
 public class ManagerController {
 
-  public record RoleOption(String key, String label, ShiftPeriod period, Position position) {}
-
   private final AppUserRepository userRepo;
   private final ShiftRepository shiftRepo;
   private final AssignmentRepository assignmentRepo;
   private final AvailabilityRepository availabilityRepo;
-  private final SchedulePeriodRepository schedulePeriodRepo;
   private final AmendmentRepository amendmentRepo;
   private final RequestService requestService;
+  private final AvailabilityService availabilityService;
+  private final DayScheduleAssembler dayScheduleAssembler;
+  private final DayScheduleWriter dayScheduleWriter;
+  private final ScheduleCoverageService coverageService;
+  private final AutoScheduleService autoScheduleService;
+  private final SlotSuggestionService slotSuggestionService;
+  private final ScheduleConflictService conflictService;
+  private final CopyForwardService copyForwardService;
+  private final PostedPeriodIndex postedPeriodIndex;
   private static final ZoneId APP_ZONE = ZoneId.of("America/Los_Angeles");
 
   public ManagerController(AppUserRepository userRepo,
                            ShiftRepository shiftRepo,
                            AssignmentRepository assignmentRepo,
                            AvailabilityRepository availabilityRepo,
-                           SchedulePeriodRepository schedulePeriodRepo,
                            AmendmentRepository amendmentRepo,
-                           RequestService requestService) {
+                           RequestService requestService,
+                           AvailabilityService availabilityService,
+                           DayScheduleAssembler dayScheduleAssembler,
+                           DayScheduleWriter dayScheduleWriter,
+                           ScheduleCoverageService coverageService,
+                           AutoScheduleService autoScheduleService,
+                           SlotSuggestionService slotSuggestionService,
+                           ScheduleConflictService conflictService,
+                           CopyForwardService copyForwardService,
+                           PostedPeriodIndex postedPeriodIndex) {
     this.userRepo = userRepo;
     this.shiftRepo = shiftRepo;
     this.assignmentRepo = assignmentRepo;
     this.availabilityRepo = availabilityRepo;
-    this.schedulePeriodRepo = schedulePeriodRepo;
     this.amendmentRepo = amendmentRepo;
     this.requestService = requestService;
+    this.availabilityService = availabilityService;
+    this.dayScheduleAssembler = dayScheduleAssembler;
+    this.dayScheduleWriter = dayScheduleWriter;
+    this.coverageService = coverageService;
+    this.autoScheduleService = autoScheduleService;
+    this.slotSuggestionService = slotSuggestionService;
+    this.conflictService = conflictService;
+    this.copyForwardService = copyForwardService;
+    this.postedPeriodIndex = postedPeriodIndex;
   }
 
   /** Normalize any date to the Monday of its week. */
@@ -64,7 +97,7 @@ public class ManagerController {
 
   /** Lock a day if it belongs to ANY posted period (not just the latest). */
   private boolean isLocked(LocalDate date) {
-    return schedulePeriodRepo.findPostedContaining(date).isPresent();
+    return postedPeriodIndex.isLocked(date);
   }
 
   @GetMapping("/schedule-builder")
@@ -87,30 +120,28 @@ public class ManagerController {
     LocalDate prevStart = windowStart.minusDays(14);
     LocalDate nextStart = windowStart.plusDays(14);
 
-    var postedPeriods      = schedulePeriodRepo.findPostedOverlapping(windowStart, windowEnd);
-    var amendmentsInWindow = amendmentRepo.findByDateBetween(windowStart, windowEnd);
+    var postedPeriods = postedPeriodIndex.overlapping(windowStart, windowEnd);
 
-    Set<LocalDate> postedDates  = new HashSet<>();
-    Set<LocalDate> amendedDates = new HashSet<>();
+    // Distinct amended dates + filled/required counts (aggregate queries, no entity loads)
+    Set<LocalDate> amendedDates = coverageService.amendedDates(windowStart, windowEnd);
+    Map<LocalDate, ScheduleCoverageService.DayCoverage> coverageByDate =
+            coverageService.coverage(windowStart, windowEnd);
 
-    for (var a : amendmentsInWindow) {
-      amendedDates.add(a.getDate());
-    }
+    Set<LocalDate> postedDates  = new HashSet<>();
     for (var p : postedPeriods) {
-      for (LocalDate d = p.getStartDate(); !d.isAfter(p.getEndDate()); d = d.plusDays(1)) {
+      for (LocalDate d = p.startDate(); !d.isAfter(p.endDate()); d = d.plusDays(1)) {
         if (!d.isBefore(windowStart) && !d.isAfter(windowEnd)) {
           postedDates.add(d);
         }
       }
     }
 
-    // 🔹 Raw LocalDate-keyed map from the service
-    Map<LocalDate, List<String>> rawTimeOff =
-            requestService.getApprovedTimeOffByDate(windowStart, windowEnd);
+    // 🔹 Approved time off for the window (one query; ids + names by date)
+    TimeOffIndex timeOff = requestService.getApprovedTimeOffIndex(windowStart, windowEnd);
 
     // 🔹 Convert to String-keyed map ("yyyy-MM-dd") for Thymeleaf
     Map<String, List<String>> timeOffNamesByDate = new HashMap<>();
-    for (Map.Entry<LocalDate, List<String>> e : rawTimeOff.entrySet()) {
+    for (Map.Entry<LocalDate, List<String>> e : timeOff.namesByDate().entrySet()) {
       String key = e.getKey().toString(); // LocalDate -> "2026-01-31"
       timeOffNamesByDate.put(key, e.getValue());
     }
@@ -122,6 +153,12 @@ public class ManagerController {
     model.addAttribute("nextStart", nextStart);
     model.addAttribute("postedDates", postedDates);
     model.addAttribute("amendedDates", amendedDates);
+    model.addAttribute("coverageByDate", coverageByDate);
+
+    // Rule violations in the window (time off, availability, manager slot, double-booking)
+    var conflicts = conflictService.analyze(windowStart, windowEnd);
+    model.addAttribute("conflicts", conflicts);
+    model.addAttribute("conflictCountByDate", ScheduleConflictService.countByDate(conflicts));
 
     // 🔹 This is now Map<String, List<String>>
     model.addAttribute("timeOffNamesByDate", timeOffNamesByDate);
@@ -132,29 +169,54 @@ public class ManagerController {
     return "manager/schedule-builder";
   }
 
+  /** Fill the empty slots of the visible (draft) 2-week window from availability + time off. */
+  @PostMapping("/schedule-builder/generate")
+  public String generateDraft(
+          @RequestParam("start")
+          @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate start,
+          RedirectAttributes redirectAttributes
+  ) {
+    LocalDate windowStart = mondayOf(start);
+    try {
+      var result = autoScheduleService.generateDraft(windowStart);
+      redirectAttributes.addFlashAttribute("message",
+              "Draft generated: " + result.filled() + " slots filled"
+                      + (result.unfilled() > 0 ? ", " + result.unfilled() + " left open (no eligible staff)" : "") + ".");
+    } catch (IllegalStateException ex) {
+      redirectAttributes.addFlashAttribute("error", ex.getMessage());
+    }
+    return "redirect:/manager/schedule-builder?start=" + windowStart;
+  }
+
+  /** Copy the previous 2 weeks (or ?source=) into the visible draft window, skipping conflicts. */
+  @PostMapping("/schedule-builder/copy")
+  public String copyForward(
+          @RequestParam("start")
+          @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate start,
+          @RequestParam(value = "source", required = false)
+          @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate source,
+          RedirectAttributes redirectAttributes
+  ) {
+    LocalDate windowStart = mondayOf(start);
+    LocalDate sourceStart = (source != null) ? mondayOf(source) : windowStart.minusDays(14);
+    try {
+      var result = copyForwardService.copy(sourceStart, windowStart);
+      redirectAttributes.addFlashAttribute("message",
+              "Copied " + result.copied() + " assignments from "
+                      + sourceStart.format(DateTimeFormatter.ofPattern("MM/dd/yy"))
+                      + (result.skipped().isEmpty() ? "." : "; " + result.skipped().size() + " skipped (see below)."));
+      redirectAttributes.addFlashAttribute("copySkipped", result.skipped());
+    } catch (IllegalStateException | IllegalArgumentException ex) {
+      redirectAttributes.addFlashAttribute("error", ex.getMessage());
+    }
+    return "redirect:/manager/schedule-builder?start=" + windowStart;
+  }
+
   @GetMapping("/schedule/{date}")
   public String daySchedule(@PathVariable String date, Model model) {
     LocalDate target = LocalDate.parse(date, DateTimeFormatter.ISO_DATE);
     DayOfWeek dow = target.getDayOfWeek();
 
-    List<RoleOption> lunchRoles = List.of(
-            new RoleOption("role_LUNCH_SERVER","Server", ShiftPeriod.LUNCH, Position.LUNCH_SERVER),
-            new RoleOption("role_LUNCH_ASSISTANT","Assistant", ShiftPeriod.LUNCH, Position.LUNCH_ASSISTANT),
-            new RoleOption("role_LUNCH_MANAGER","Manager", ShiftPeriod.LUNCH, Position.LUNCH_MANAGER)
-    );
-    List<RoleOption> dinnerRoles = List.of(
-            new RoleOption("role_DINNER_SERVER_1","Server 1", ShiftPeriod.DINNER, Position.SERVER_1),
-            new RoleOption("role_DINNER_SERVER_2","Server 2", ShiftPeriod.DINNER, Position.SERVER_2),
-            new RoleOption("role_DINNER_SERVER_3","Server 3", ShiftPeriod.DINNER, Position.SERVER_3),
-            new RoleOption("role_DINNER_SUSHI","Sushi", ShiftPeriod.DINNER, Position.SUSHI),
-            new RoleOption("role_DINNER_EXPO","Expo", ShiftPeriod.DINNER, Position.EXPO),
-            new RoleOption("role_DINNER_BUSSER_1","Busser 1", ShiftPeriod.DINNER, Position.BUSSER_1),
-            new RoleOption("role_DINNER_BUSSER_2","Busser 2", ShiftPeriod.DINNER, Position.BUSSER_2),
-            new RoleOption("role_DINNER_HOST_1","Host 1", ShiftPeriod.DINNER, Position.HOST_1),
-            new RoleOption("role_DINNER_HOST_2","Host 2", ShiftPeriod.DINNER, Position.HOST_2),
-            new RoleOption("role_DINNER_FLOAT","FLOAT", ShiftPeriod.DINNER, Position.FLOAT)
-    );
-
     // Staff lists
     List<AppUser> employees = userRepo.findByRoles_Name("EMPLOYEE");
     List<AppUser> managers  = userRepo.findByRoles_Name("MANAGER");
@@ -180,71 +242,8 @@ public class ManagerController {
     availableDinnerStaff.addAll(availDinnerManagers);
     availableDinnerStaff.sort(Comparator.comparing(AppUser::getFullName));
 
-    // Saved selections (username values)
-    Map<String,String> saved = new HashMap<>();
-    assignmentRepo.findByShift_Date(target).forEach(a -> {
-      Position pos = a.getShift().getPosition();
-      ShiftPeriod per = a.getShift().getPeriod();
-      String key = switch (per) {
-        case LUNCH -> switch (pos) {
-          case LUNCH_SERVER -> "role_LUNCH_SERVER";
-          case LUNCH_ASSISTANT -> "role_LUNCH_ASSISTANT";
-          case LUNCH_MANAGER -> "role_LUNCH_MANAGER";
-          default -> null;
-        };
-        case DINNER -> switch (pos) {
-          case SERVER_1 -> "role_DINNER_SERVER_1";
-          case SERVER_2 -> "role_DINNER_SERVER_2";
-          case SERVER_3 -> "role_DINNER_SERVER_3";
-          case SUSHI    -> "role_DINNER_SUSHI";
-          case EXPO     -> "role_DINNER_EXPO";
-          case BUSSER_1 -> "role_DINNER_BUSSER_1";
-          case BUSSER_2 -> "role_DINNER_BUSSER_2";
-          case HOST_1   -> "role_DINNER_HOST_1";
-          case HOST_2   -> "role_DINNER_HOST_2";
-          case FLOAT    -> "role_DINNER_FLOAT";
-          default -> null;
-        };
-      };
-      if (key != null && a.getEmployee() != null) {
-        saved.put(key, a.getEmployee().getUsername());
-      }
-    });
-
-    Map<String, String> savedDisplayNames = new HashMap<>();
-    assignmentRepo.findByShift_Date(target).forEach(a -> {
-      Position pos = a.getShift().getPosition();
-      ShiftPeriod per = a.getShift().getPeriod();
-
-      String key = switch (per) {
-        case LUNCH -> switch (pos) {
-          case LUNCH_SERVER -> "role_LUNCH_SERVER";
-          case LUNCH_ASSISTANT -> "role_LUNCH_ASSISTANT";
-          case LUNCH_MANAGER -> "role_LUNCH_MANAGER";
-          default -> null;
-        };
-        case DINNER -> switch (pos) {
-          case SERVER_1 -> "role_DINNER_SERVER_1";
-          case SERVER_2 -> "role_DINNER_SERVER_2";
-          case SERVER_3 -> "role_DINNER_SERVER_3";
-          case SUSHI    -> "role_DINNER_SUSHI";
-          case EXPO     -> "role_DINNER_EXPO";
-          case BUSSER_1 -> "role_DINNER_BUSSER_1";
-          case BUSSER_2 -> "role_DINNER_BUSSER_2";
-          case HOST_1   -> "role_DINNER_HOST_1";
-          case HOST_2   -> "role_DINNER_HOST_2";
-          case FLOAT    -> "role_DINNER_FLOAT";
-          default -> null;
-        };
-      };
-
-      if (key != null && a.getEmployee() != null) {
-        String displayName = (a.getEmployee().getFullName() != null && !a.getEmployee().getFullName().isBlank())
-                ? a.getEmployee().getFullName()
-                : a.getEmployee().getUsername();
-        savedDisplayNames.put(key, displayName);
-      }
-    });
+    // Saved selections, display names and amendments: fetch-joined, one pass
+    DayScheduleAssembler.DaySchedule day = dayScheduleAssembler.assemble(target);
 
     Set<String> availableLunchManagerUsernames = new HashSet<>();
     for (AppUser u : availLunchManagers) {
@@ -261,55 +260,24 @@ public class ManagerController {
       availableDinnerStaffUsernames.add(u.getUsername());
     }
 
-    // Remove users who have approved time off that day
+    // Remove users who have approved time off that day (one query, id-keyed membership)
     // The override lists (allStaff, allManagers) should still show them.
-    availableLunchStaff.removeIf(u -> requestService.hasApprovedTimeOff(u, target));
-    availableDinnerStaff.removeIf(u -> requestService.hasApprovedTimeOff(u, target));
-    availLunchManagers.removeIf(u -> requestService.hasApprovedTimeOff(u, target));
+    TimeOffIndex timeOff = requestService.getApprovedTimeOffIndex(target, target);
+    Set<Long> offToday = timeOff.userIdsOn(target);
+    availableLunchStaff.removeIf(u -> offToday.contains(u.getId()));
+    availableDinnerStaff.removeIf(u -> offToday.contains(u.getId()));
+    availLunchManagers.removeIf(u -> offToday.contains(u.getId()));
 // Do NOT filter allStaff / managers by time off, so override can assign them.
 
-    // Amendments (for posted periods)
-    Map<String, String> amended = new HashMap<>();
-    var amps = amendmentRepo.findByDate(target);
-    for (var a : amps) {
-      String key = switch (a.getPeriod()) {
-        case LUNCH -> switch (a.getPosition()) {
-          case LUNCH_SERVER    -> "role_LUNCH_SERVER";
-          case LUNCH_ASSISTANT -> "role_LUNCH_ASSISTANT";
-          case LUNCH_MANAGER   -> "role_LUNCH_MANAGER";
-          default -> null;
-        };
-        case DINNER -> switch (a.getPosition()) {
-          case SERVER_1 -> "role_DINNER_SERVER_1";
-          case SERVER_2 -> "role_DINNER_SERVER_2";
-          case SERVER_3 -> "role_DINNER_SERVER_3";
-          case SUSHI    -> "role_DINNER_SUSHI";
-          case EXPO     -> "role_DINNER_EXPO";
-          case BUSSER_1 -> "role_DINNER_BUSSER_1";
-          case BUSSER_2 -> "role_DINNER_BUSSER_2";
-          case HOST_1   -> "role_DINNER_HOST_1";
-          case HOST_2   -> "role_DINNER_HOST_2";
-          case FLOAT    -> "role_DINNER_FLOAT";
-          default -> null;
-        };
-      };
-      if (key != null) {
-        String orig = (a.getOriginalEmployee() != null) ? a.getOriginalEmployee().getFullName() : "—";
-        String now  = (a.getNewEmployee()      != null) ? a.getNewEmployee().getFullName()      : "—";
-        amended.put(key, orig + " → " + now);
-      }
-    }
+    model.addAttribute("timeOffNamesForDay", timeOff.namesOn(target));
 
-    model.addAttribute("timeOffNamesForDay",
-            requestService.getApprovedTimeOffByDate(target, target).getOrDefault(target, java.util.List.of()));
-
-    model.addAttribute("amended", amended);
+    model.addAttribute("amended", day.amended());
     model.addAttribute("date", target);
     model.addAttribute("prevDate", target.minusDays(1));
     model.addAttribute("nextDate", target.plusDays(1));
 
-    model.addAttribute("lunchRoles", lunchRoles);
-    model.addAttribute("dinnerRoles", dinnerRoles);
+    model.addAttribute("lunchRoles", ScheduleRoles.LUNCH);
+    model.addAttribute("dinnerRoles", ScheduleRoles.DINNER);
 
     model.addAttribute("availableLunchStaff", availableLunchStaff);
     model.addAttribute("availableDinnerStaff", availableDinnerStaff);
@@ -317,38 +285,39 @@ public class ManagerController {
     model.addAttribute("allStaff", allStaff);
     model.addAttribute("allManagers", managers);
 
-    model.addAttribute("saved", saved);
+    model.addAttribute("saved", day.saved());
     model.addAttribute("active", "manager-schedule");
 
-    model.addAttribute("savedDisplayNames", savedDisplayNames);
+    model.addAttribute("savedDisplayNames", day.savedDisplayNames());
     model.addAttribute("availableLunchManagerUsernames", availableLunchManagerUsernames);
     model.addAttribute("availableLunchStaffUsernames", availableLunchStaffUsernames);
     model.addAttribute("availableDinnerStaffUsernames", availableDinnerStaffUsernames);
 
     model.addAttribute("locked", isLocked(target)); // lock if any POSTED period contains this date
+    model.addAttribute("conflicts", conflictService.analyze(target, target));
     return "manager/day";
   }
 
+  /** Ranked candidates for one role on the day page (JSON, used by the "Suggest" buttons). */
+  @GetMapping("/schedule/{date}/suggestions")
+  @ResponseBody
+  public List<SlotSuggestionService.Suggestion> suggestions(@PathVariable String date,
+                                                           @RequestParam("role") String role,
+                                                           @RequestParam(name = "limit", defaultValue = "5") int limit) {
+    LocalDate target = LocalDate.parse(date, DateTimeFormatter.ISO_DATE);
+    RoleOption ro = ScheduleRoles.byKey(role);
+    if (ro == null || !ScheduleRoles.isOpen(target.getDayOfWeek())) {
+      return List.of();
+    }
+    return slotSuggestionService.suggest(target, ro, Math.max(1, Math.min(limit, 20)));
+  }
+
   private List<AppUser> filterByAvailability(List<AppUser> users, DayOfWeek day, ShiftPeriod period) {
+    // Served from the in-memory index (approved + legacy null-status rows), no per-user queries
     List<AppUser> out = new ArrayList<>();
     for (AppUser u : users) {
-      var opt = availabilityRepo.findByUserAndDayOfWeek(u, day);
-      if (opt.isPresent()) {
-        var a = opt.get();
-
-        // Treat null (legacy rows) as APPROVED so existing data still works
-        RequestStatus status = a.getStatus();
-        if (status != null && status != RequestStatus.APPROVED) {
-          continue;
-        }
-
-        boolean ok = (period == ShiftPeriod.LUNCH)
-                ? a.isLunchAvailable()
-                : a.isDinnerAvailable();
-
-        if (ok) {
-          out.add(u);
-        }
+      if (availabilityService.isAvailable(u.getId(), day, period)) {
+        out.add(u);
       }
     }
     out.sort(Comparator.comparing(AppUser::getFullName));
@@ -418,6 +387,7 @@ public class ManagerController {
         availabilityRepo.save(a);
       }
     }
+    availabilityService.invalidate();
 
     redirectAttributes.addFlashAttribute("message",
             "Availability approved for " + user.getFullName());
@@ -441,6 +411,7 @@ public class ManagerController {
         availabilityRepo.save(a);
       }
     }
+    availabilityService.invalidate();
 
     redirectAttributes.addFlashAttribute("message",
             "Availability denied for " + user.getFullName());
@@ -457,7 +428,9 @@ public class ManagerController {
     LocalDate target = LocalDate.parse(date, DateTimeFormatter.ISO_DATE);
 
     boolean override = "1".equals(params.getOrDefault("override", "0"));
-    boolean inPostedPeriod = schedulePeriodRepo.findPostedContaining(target).isPresent();
+    // The posted period (lock check + Amendment linkage)
+    var spOpt = postedPeriodIndex.containing(target);
+    boolean inPostedPeriod = spOpt.isPresent();
 
     // Respect lock unless override
     if (inPostedPeriod && !override) {
@@ -466,111 +439,16 @@ public class ManagerController {
     }
 
     if ("clear".equalsIgnoreCase(action)) {
-      assignmentRepo.deleteByShift_Date(target);
+      dayScheduleWriter.clearDay(target);
       return "redirect:/manager/schedule/{date}?cleared";
     }
 
-    Map<String, RoleOption> roleMap = new HashMap<>();
-    for (var ro : List.of(
-            new RoleOption("role_LUNCH_SERVER","Server", ShiftPeriod.LUNCH, Position.LUNCH_SERVER),
-            new RoleOption("role_LUNCH_ASSISTANT","Assistant", ShiftPeriod.LUNCH, Position.LUNCH_ASSISTANT),
-            new RoleOption("role_LUNCH_MANAGER","Manager", ShiftPeriod.LUNCH, Position.LUNCH_MANAGER),
-            new RoleOption("role_DINNER_SERVER_1","Server 1", ShiftPeriod.DINNER, Position.SERVER_1),
-            new RoleOption("role_DINNER_SERVER_2","Server 2", ShiftPeriod.DINNER, Position.SERVER_2),
-            new RoleOption("role_DINNER_SERVER_3","Server 3", ShiftPeriod.DINNER, Position.SERVER_3),
-            new RoleOption("role_DINNER_SUSHI","Sushi", ShiftPeriod.DINNER, Position.SUSHI),
-            new RoleOption("role_DINNER_EXPO","Expo", ShiftPeriod.DINNER, Position.EXPO),
-            new RoleOption("role_DINNER_BUSSER_1","Busser 1", ShiftPeriod.DINNER, Position.BUSSER_1),
-            new RoleOption("role_DINNER_BUSSER_2","Busser 2", ShiftPeriod.DINNER, Position.BUSSER_2),
-            new RoleOption("role_DINNER_HOST_1","Host 1", ShiftPeriod.DINNER, Position.HOST_1),
-            new RoleOption("role_DINNER_HOST_2","Host 2", ShiftPeriod.DINNER, Position.HOST_2),
-            new RoleOption("role_DINNER_FLOAT","FLOAT", ShiftPeriod.DINNER, Position.FLOAT)
-    )) roleMap.put(ro.key(), ro);
-
     // Who is making the change (optional)
-    AppUser changer = null;
-    if (auth != null && auth.getName() != null) {
-      changer = userRepo.findByUsername(auth.getName()).orElse(null);
-    }
-
-    // The posted period (for Amendment linkage)
-    var spOpt = schedulePeriodRepo.findPostedContaining(target);
-    Long postedPeriodId = spOpt.map(SchedulePeriod::getId).orElse(null);
-
-    for (Map.Entry<String,String> e : params.entrySet()) {
-      String key = e.getKey();
-      if (!key.startsWith("role_")) continue;
+    String changerUsername = (auth != null) ? auth.getName() : null;
+    Long postedPeriodId = spOpt.map(PostedPeriodIndex.Posted::id).orElse(null);
 
-      String username = e.getValue();
-      RoleOption ro = roleMap.get(key);
-      if (ro == null) continue;
-
-      // Lunch Manager must be a MANAGER
-      if ("role_LUNCH_MANAGER".equals(key)) {
-        var userOpt = userRepo.findByUsername(username);
-        if (userOpt.isPresent()) {
-          boolean isManager = userOpt.get().getRoles().stream().anyMatch(r -> "MANAGER".equals(r.getName()));
-          if (!isManager) continue;
-        }
-      }
-
-      // Current assignment (old)
-      Shift shift = shiftRepo.findByDateAndPeriodAndPosition(target, ro.period(), ro.position())
-              .orElseGet(() -> {
-                Shift s = new Shift();
-                s.setDate(target);
-                s.setPeriod(ro.period());
-                s.setPosition(ro.position());
-                return shiftRepo.save(s);
-              });
-
-      var currentAssignmentOpt = assignmentRepo.findByShift(shift);
-      AppUser oldEmp = currentAssignmentOpt.map(Assignment::getEmployee).orElse(null);
-
-      // Apply new value
-      if (username == null || username.isBlank()) {
-        currentAssignmentOpt.ifPresent(assignmentRepo::delete);
-      } else {
-        AppUser user = userRepo.findByUsername(username).orElse(null);
-        if (user == null) continue;
-        Assignment a = currentAssignmentOpt.orElseGet(Assignment::new);
-        a.setShift(shift);
-        a.setEmployee(user);
-        assignmentRepo.save(a);
-      }
-
-      // If posted day + override and assignee changed, upsert Amendment
-      if (postedPeriodId != null && override) {
-        AppUser newEmp = null;
-        if (username != null && !username.isBlank()) {
-          newEmp = userRepo.findByUsername(username).orElse(null);
-        }
-
-        boolean changed = (oldEmp == null && newEmp != null)
-                || (oldEmp != null && newEmp == null)
-                || (oldEmp != null && newEmp != null && !Objects.equals(oldEmp.getId(), newEmp.getId()));
-
-        if (changed) {
-          var amendOpt = amendmentRepo.findBySchedulePeriod_IdAndDateAndPeriodAndPosition(
-                  postedPeriodId, target, ro.period(), ro.position());
-
-          var amendment = amendOpt.orElseGet(() -> {
-            var a = new com.resto.scheduler.model.Amendment();
-            a.setSchedulePeriod(spOpt.get());
-            a.setDate(target);
-            a.setPeriod(ro.period());
-            a.setPosition(ro.position());
-            a.setOriginalEmployee(oldEmp); // capture once
-            return a;
-          });
-
-          amendment.setNewEmployee(newEmp);   // update to latest
-          amendment.setChangedBy(changer);
-          amendment.setChangedAt(java.time.LocalDateTime.now(APP_ZONE));
-          amendmentRepo.save(amendment);
-        }
-      }
-    }
+    // Preload + diff + JDBC batches, one transaction
+    dayScheduleWriter.saveDay(target, params, postedPeriodId, override, changerUsername);
 
     return "redirect:/manager/schedule/{date}?saved";
   }
@@ -1,18 +1,21 @@
 package com.resto.scheduler.controller;
 
+import com.resto.scheduler.config.AppUserPrincipal;
 import com.resto.scheduler.model.Assignment;
 import com.resto.scheduler.model.SchedulePeriod;
 import com.resto.scheduler.repository.AssignmentRepository;
-import com.resto.scheduler.repository.PublishedAssignmentRepository;
 import com.resto.scheduler.repository.SchedulePeriodRepository;
-import com.resto.scheduler.service.PublishService;
+import com.resto.scheduler.service.PostedPeriodIndex;
+import com.resto.scheduler.service.PublishJobService;
+import com.resto.scheduler.service.PublishedVersionService;
+import com.resto.scheduler.service.ScheduleConflictService;
 import com.resto.scheduler.service.ScheduleViewService;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.web.bind.annotation.*;
 
 import java.time.ZoneId;
-import jakarta.servlet.http.HttpServletRequest;
 import java.time.*;
 import java.time.format.DateTimeFormatter;
 import java.util.*;
@@ -24,20 +27,26 @@ public class ManagerPublishController {
     private final SchedulePeriodRepository schedulePeriods;
     private final AssignmentRepository assignmentRepo;
     private final ScheduleViewService scheduleView;
-    private final PublishService publishService;
-    private final PublishedAssignmentRepository publishedAssignmentRepository;
+    private final PublishJobService publishJobService;
+    private final ScheduleConflictService conflictService;
+    private final PostedPeriodIndex postedPeriodIndex;
+    private final PublishedVersionService versionService;
     private static final ZoneId APP_ZONE = ZoneId.of("America/Los_Angeles");
 
     public ManagerPublishController(SchedulePeriodRepository schedulePeriods,
                                     AssignmentRepository assignmentRepo,
                                     ScheduleViewService scheduleView,
-                                    PublishService publishService,
-                                    PublishedAssignmentRepository publishedAssignmentRepository) {
+                                    PublishJobService publishJobService,
+                                    ScheduleConflictService conflictService,
+                                    PostedPeriodIndex postedPeriodIndex,
+                                    PublishedVersionService versionService) {
         this.schedulePeriods = schedulePeriods;
         this.assignmentRepo = assignmentRepo;
         this.scheduleView = scheduleView;
-        this.publishService = publishService;
-        this.publishedAssignmentRepository = publishedAssignmentRepository;
+        this.publishJobService = publishJobService;
+        this.conflictService = conflictService;
+        this.postedPeriodIndex = postedPeriodIndex;
+        this.versionService = versionService;
     }
 
     /** Create-or-get, used only by POST actions (not by GET/browse). */
@@ -64,19 +73,12 @@ public class ManagerPublishController {
         LocalDate today = LocalDate.now(APP_ZONE);
         LocalDate anchor = (start != null) ? start : today;
 
-        // 2) Try to find a POSTED period that CONTAINS the anchor date
-        LocalDate baseStart;
-        var spOpt = schedulePeriods.findPostedContaining(anchor);
-
-        if (spOpt.isPresent()) {
-            // Use the real posted period boundaries
-            SchedulePeriod sp = spOpt.get();
-            baseStart = sp.getStartDate();
-        } else {
-            // No posted period contains anchor → fall back to Monday-of-anchor
-            baseStart = scheduleView.mondayOf(anchor);
-            spOpt = schedulePeriods.findByStartDate(baseStart);
-        }
+        // 2) Try to find a POSTED period that CONTAINS the anchor date (in-memory index)
+        // Use the real posted period boundaries, else fall back to Monday-of-anchor
+        LocalDate baseStart = postedPeriodIndex.containing(anchor)
+                .map(PostedPeriodIndex.Posted::startDate)
+                .orElseGet(() -> scheduleView.mondayOf(anchor));
+        var spOpt = schedulePeriods.findByStartDate(baseStart);
 
         LocalDate endInclusive = baseStart.plusDays(13);
 
@@ -87,7 +89,7 @@ public class ManagerPublishController {
         for (int i = 0; i < 7; i++) week2.add(baseStart.plusDays(7 + i));
 
         // Live assignments for this window (preview)
-        var allAssignments = assignmentRepo.findByShift_DateBetween(baseStart, endInclusive);
+        var allAssignments = assignmentRepo.findWithShiftAndEmployeeByDateBetween(baseStart, endInclusive);
         Map<String, Map<String, Assignment>> assignmentsGrid = new HashMap<>();
         for (var a : allAssignments) {
             var s = a.getShift();
@@ -100,44 +102,8 @@ public class ManagerPublishController {
         boolean hasPeriod = spOpt.isPresent();
         boolean isPosted  = hasPeriod && "POSTED".equalsIgnoreCase(spOpt.get().getStatus());
 
-        // Diff-based needsRepublish (snapshot vs live), only if POSTED
-        boolean needsRepublish = false;
-        if (isPosted) {
-            Long spId = spOpt.get().getId();
-            var snapshotRows = publishedAssignmentRepository.findBySchedulePeriod_Id(spId);
-
-            Map<String, Map<String, Long>> snapGrid = new HashMap<>();
-            for (var pr : snapshotRows) {
-                String dk = pr.getDate().toString();
-                String rk = pr.getPeriod().name() + "_" + pr.getPosition().name();
-                snapGrid.computeIfAbsent(dk, k -> new HashMap<>())
-                        .put(rk, pr.getUser() != null ? pr.getUser().getId() : null);
-            }
-
-            // 1) live vs snapshot mismatches
-            outer:
-            for (var eDay : assignmentsGrid.entrySet()) {
-                var liveRoles = eDay.getValue();
-                var snapRoles = snapGrid.getOrDefault(eDay.getKey(), Collections.emptyMap());
-                for (var eRole : liveRoles.entrySet()) {
-                    Long liveUid = (eRole.getValue().getEmployee() != null)
-                            ? eRole.getValue().getEmployee().getId() : null;
-                    Long snapUid = snapRoles.getOrDefault(eRole.getKey(), null);
-                    if (!Objects.equals(liveUid, snapUid)) { needsRepublish = true; break outer; }
-                }
-            }
-            // 2) roles present in snapshot but removed in live
-            if (!needsRepublish) {
-                outer2:
-                for (var eDay : snapGrid.entrySet()) {
-                    var snapRoles = eDay.getValue();
-                    var liveRoles = assignmentsGrid.getOrDefault(eDay.getKey(), Collections.emptyMap());
-                    for (String rk : snapRoles.keySet()) {
-                        if (!liveRoles.containsKey(rk)) { needsRepublish = true; break outer2; }
-                    }
-                }
-            }
-        }
+        // Revision counters (live vs snapshot) maintained by the database, only if POSTED
+        boolean needsRepublish = isPosted && spOpt.get().isSnapshotStale();
 
         DateTimeFormatter bannerFormatter = DateTimeFormatter.ofPattern("MM-dd-yy");
 
@@ -157,10 +123,13 @@ public class ManagerPublishController {
         model.addAttribute("hasPeriod", hasPeriod);
         model.addAttribute("isPosted", isPosted);
         model.addAttribute("needsRepublish", needsRepublish);
+        model.addAttribute("publishJob",
+                spOpt.flatMap(sp -> publishJobService.latestForPeriod(sp.getId())).orElse(null));
 
         model.addAttribute("week1", week1);
         model.addAttribute("week2", week2);
         model.addAttribute("assignmentsGrid", assignmentsGrid);
+        model.addAttribute("conflicts", conflictService.analyze(baseStart, endInclusive));
 
         model.addAttribute("prevStart", baseStart.minusDays(14));
         model.addAttribute("nextStart", baseStart.plusDays(14));
@@ -175,17 +144,17 @@ public class ManagerPublishController {
             @RequestParam("start")
             @org.springframework.format.annotation.DateTimeFormat(iso = org.springframework.format.annotation.DateTimeFormat.ISO.DATE)
             LocalDate start,
-            HttpServletRequest request
+            @AuthenticationPrincipal AppUserPrincipal me
     ) {
         SchedulePeriod sp = ensurePeriodForStart(start);
         sp.setStatus("POSTED");
         sp.setPostedAt(OffsetDateTime.now(ZoneOffset.UTC));
-
-        Object uid = request.getSession().getAttribute("userId");
-        if (uid instanceof Long l) sp.setPostedByUserId(l);
+        sp.setPostedByUserId(me.getId());
 
         schedulePeriods.save(sp);
-        publishService.snapshotPeriod(sp.getId());
+        postedPeriodIndex.invalidate();
+        // Snapshot + notifications run in the background; the page shows the job's progress
+        publishJobService.enqueue(sp.getId(), "POST", sp.getPostedByUserId());
         return "redirect:/manager/publish?start=" + sp.getStartDate() + "&posted=1";
     }
 
@@ -194,14 +163,39 @@ public class ManagerPublishController {
     public String republish(
             @RequestParam("start")
             @org.springframework.format.annotation.DateTimeFormat(iso = org.springframework.format.annotation.DateTimeFormat.ISO.DATE)
-            LocalDate start
+            LocalDate start,
+            @AuthenticationPrincipal AppUserPrincipal me
     ) {
         LocalDate base = scheduleView.mondayOf(start);
         var spOpt = schedulePeriods.findByStartDate(base);
         if (spOpt.isPresent() && "POSTED".equalsIgnoreCase(spOpt.get().getStatus())) {
-            publishService.snapshotPeriod(spOpt.get().getId());
+            publishJobService.enqueue(spOpt.get().getId(), "REPUBLISH", me.getId());
             return "redirect:/manager/publish?start=" + base + "&republished=1";
         }
         return "redirect:/manager/publish?start=" + base + "&republished=0";
     }
+
+    /** JSON: publish history of a period, newest first. */
+    @GetMapping("/versions")
+    @ResponseBody
+    public List<PublishedVersionService.VersionInfo> versions(@RequestParam("periodId") Long periodId) {
+        return versionService.versions(periodId);
+    }
+
+    /** JSON: the full grid as published in one version (empty if it does not exist). */
+    @GetMapping("/versions/{version}")
+    @ResponseBody
+    public List<PublishedVersionService.Slot> version(@RequestParam("periodId") Long periodId,
+                                                      @PathVariable int version) {
+        return versionService.slotsAt(periodId, version);
+    }
+
+    /** JSON: per-slot changes between two published versions of a period. */
+    @GetMapping("/versions/diff")
+    @ResponseBody
+    public List<PublishedVersionService.SlotChange> versionDiff(@RequestParam("periodId") Long periodId,
+                                                                @RequestParam("from") int from,
+                                                                @RequestParam("to") int to) {
+        return versionService.diff(periodId, from, to);
+    }
 }
@@ -1,5 +1,6 @@
 package com.resto.scheduler.controller;
 
+import com.resto.scheduler.config.AppUserPrincipal;
 import com.resto.scheduler.model.AppUser;
 import com.resto.scheduler.model.Request;
 import com.resto.scheduler.repository.AppUserRepository;
@@ -142,8 +143,9 @@ public class ManagerRequestController {
         return "redirect:/manager/requests/" + redirect + "?denied";
     }
 
+    // Id from the session principal; the row itself loads only if something reads it
     private AppUser me(Authentication auth) {
-        return userRepo.findByUsername(auth.getName()).orElseThrow();
+        return userRepo.getReferenceById(AppUserPrincipal.of(auth).getId());
     }
 
     /**
@@ -0,0 +1,57 @@
+package com.resto.scheduler.controller;
+
+import com.resto.scheduler.service.SmsDispatchMetrics;
+import com.resto.scheduler.service.SmsOutboxDispatcher;
+import com.resto.scheduler.service.SmsService;
+import com.resto.scheduler.service.impl.SimulatedSmsService;
+import org.springframework.stereotype.Controller;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.ResponseBody;
+
+import java.util.List;
+
+@Controller
+@RequestMapping("/manager/sms")
+public class ManagerSmsController {
+
+    /** What the simulated provider received; active = false when another provider is configured. */
+    public record SimulatedLog(boolean active, long total, List<SimulatedSmsService.SentMessage> messages) {}
+
+    private final SmsOutboxDispatcher smsOutboxDispatcher;
+    private final SmsService smsService;
+
+    public ManagerSmsController(SmsOutboxDispatcher smsOutboxDispatcher, SmsService smsService) {
+        this.smsOutboxDispatcher = smsOutboxDispatcher;
+        this.smsService = smsService;
+    }
+
+    /** JSON: outbox backlog, sends in flight, totals and recent send latency on this node. */
+    @GetMapping("/metrics")
+    @ResponseBody
+    public SmsDispatchMetrics.Snapshot metrics() {
+        return smsOutboxDispatcher.metrics();
+    }
+
+    /** JSON: latest attempts seen by the simulated provider (app.sms.provider=simulated), newest first. */
+    @GetMapping("/simulated")
+    @ResponseBody
+    public SimulatedLog simulated(@RequestParam(name = "limit", defaultValue = "100") int limit) {
+        if (smsService instanceof SimulatedSmsService sim) {
+            return new SimulatedLog(true, sim.total(), sim.recent(Math.max(1, limit)));
+        }
+        return new SimulatedLog(false, 0, List.of());
+    }
+
+    @PostMapping("/simulated/clear")
+    @ResponseBody
+    public SimulatedLog clearSimulated() {
+        if (smsService instanceof SimulatedSmsService sim) {
+            sim.clear();
+            return new SimulatedLog(true, 0, List.of());
+        }
+        return new SimulatedLog(false, 0, List.of());
+    }
+}
@@ -1,13 +1,18 @@
 package com.resto.scheduler.controller;
 
+import com.resto.scheduler.config.AppUserPrincipal;
 import com.resto.scheduler.model.AppUser;
 import com.resto.scheduler.model.Notification;
 import com.resto.scheduler.repository.AppUserRepository;
 import com.resto.scheduler.repository.NotificationRepository;
-import org.springframework.security.core.Authentication;
+import com.resto.scheduler.service.NotificationHub;
+import com.resto.scheduler.service.NotificationRelay;
+import org.springframework.http.MediaType;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import java.util.List;
 
@@ -17,25 +22,32 @@ public class NotificationController {
 
     private final NotificationRepository notificationRepo;
     private final AppUserRepository userRepo;
+    private final NotificationRelay notificationRelay;
+    private final NotificationHub notificationHub;
 
     public NotificationController(NotificationRepository notificationRepo,
-                                  AppUserRepository userRepo) {
+                                  AppUserRepository userRepo,
+                                  NotificationRelay notificationRelay,
+                                  NotificationHub notificationHub) {
         this.notificationRepo = notificationRepo;
         this.userRepo = userRepo;
+        this.notificationRelay = notificationRelay;
+        this.notificationHub = notificationHub;
     }
 
     /**
      * Show notifications split into Unread + Previously read.
      */
     @GetMapping
-    public String list(Authentication auth, Model model) {
-        AppUser me = userRepo.findByUsername(auth.getName()).orElseThrow();
+    public String list(@AuthenticationPrincipal AppUserPrincipal me, Model model) {
+        // Reference only: the queries need the id, not a loaded user
+        AppUser recipient = userRepo.getReferenceById(me.getId());
 
         List<Notification> unread =
-                notificationRepo.findByRecipientAndReadIsFalseOrderByCreatedAtDesc(me);
+                notificationRepo.findByRecipientAndReadIsFalseOrderByCreatedAtDesc(recipient);
 
         List<Notification> read =
-                notificationRepo.findByRecipientAndReadIsTrueOrderByCreatedAtDesc(me);
+                notificationRepo.findByRecipientAndReadIsTrueOrderByCreatedAtDesc(recipient);
 
         model.addAttribute("me", me);
         model.addAttribute("unread", unread);
@@ -49,9 +61,7 @@ public class NotificationController {
      * Mark a single notification as read for this user.
      */
     @PostMapping("/{id}/read")
-    public String markAsRead(Authentication auth, @PathVariable Long id) {
-        AppUser me = userRepo.findByUsername(auth.getName()).orElseThrow();
-
+    public String markAsRead(@AuthenticationPrincipal AppUserPrincipal me, @PathVariable Long id) {
         Notification n = notificationRepo.findById(id).orElseThrow();
 
         // Safety: only the owner can change their notification
@@ -62,8 +72,19 @@ public class NotificationController {
         if (!n.isRead()) {
             n.setRead(true);
             notificationRepo.save(n);
+            notificationRelay.read(me.getId());
         }
 
         return "redirect:/notifications";
     }
+
+    /**
+     * Server-sent events for the navbar badge: an "unread" event with the current count on
+     * connect and whenever it changes. Runs as an async request, so no worker thread waits on it.
+     */
+    @GetMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @ResponseBody
+    public SseEmitter stream(@AuthenticationPrincipal AppUserPrincipal me) {
+        return notificationHub.subscribe(me.getId());
+    }
 }
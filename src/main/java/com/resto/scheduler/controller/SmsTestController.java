@@ -1,5 +1,6 @@
 package com.resto.scheduler.controller;
 
+import com.resto.scheduler.service.SmsDeliveryException;
 import com.resto.scheduler.service.SmsService;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestParam;
@@ -16,7 +17,11 @@ public class SmsTestController {
 
     @GetMapping("/test-sms")
     public String testSms(@RequestParam String phone) {
-        smsService.send(phone, "Test SMS from Resto Scheduler");
+        try {
+            smsService.send(phone, "Test SMS from Resto Scheduler");
+        } catch (SmsDeliveryException ex) {
+            return "SMS failed" + (ex.isRetryable() ? " (retryable)" : "") + ": " + ex.getMessage();
+        }
         return "SMS request sent. Check logs and phone.";
     }
 }
\ No newline at end of file
@@ -0,0 +1,90 @@
+package com.resto.scheduler.model;
+
+import jakarta.persistence.*;
+
+import java.time.Instant;
+
+/**
+ * A queued/running/finished publish of one schedule period.
+ * Rows are inserted and advanced by PublishJobService (JDBC); JPA only reads them for the publish page.
+ */
+@Entity
+@Table(name = "publish_job")
+public class PublishJob {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "schedule_period_id", nullable = false)
+    private Long schedulePeriodId;
+
+    @Column(name = "kind", nullable = false, length = 16)
+    private String kind; // "POST" or "REPUBLISH"
+
+    @Column(name = "status", nullable = false, length = 16)
+    private String status; // QUEUED, RUNNING, DONE, FAILED
+
+    @Column(name = "requested_by_user_id")
+    private Long requestedByUserId;
+
+    @Column(name = "attempts", nullable = false)
+    private int attempts;
+
+    @Column(name = "rows_written", nullable = false)
+    private int rowsWritten;
+
+    @Column(name = "recipients", nullable = false)
+    private int recipients;
+
+    @Column(name = "notifications_sent", nullable = false)
+    private int notificationsSent;
+
+    @Column(name = "sms_queued", nullable = false)
+    private int smsQueued;
+
+    @Column(name = "sms_sent", nullable = false)
+    private int smsSent;
+
+    @Column(name = "sms_failed", nullable = false)
+    private int smsFailed;
+
+    @Column(name = "error", length = 1000)
+    private String error;
+
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private Instant createdAt = Instant.now();
+
+    @Column(name = "started_at")
+    private Instant startedAt;
+
+    @Column(name = "finished_at")
+    private Instant finishedAt;
+
+    // getters
+    public Long getId() { return id; }
+    public Long getSchedulePeriodId() { return schedulePeriodId; }
+    public String getKind() { return kind; }
+    public String getStatus() { return status; }
+    public Long getRequestedByUserId() { return requestedByUserId; }
+    public int getAttempts() { return attempts; }
+    public int getRowsWritten() { return rowsWritten; }
+    public int getRecipients() { return recipients; }
+    public int getNotificationsSent() { return notificationsSent; }
+    public int getSmsQueued() { return smsQueued; }
+    public int getSmsSent() { return smsSent; }
+    public int getSmsFailed() { return smsFailed; }
+    public String getError() { return error; }
+    public Instant getCreatedAt() { return createdAt; }
+    public Instant getStartedAt() { return startedAt; }
+    public Instant getFinishedAt() { return finishedAt; }
+
+    /** Texts queued by this job that the dispatcher has not sent or given up on yet. */
+    public int getPending() {
+        return Math.max(0, smsQueued - smsSent - smsFailed);
+    }
+
+    public boolean isActive() {
+        return "QUEUED".equals(status) || "RUNNING".equals(status);
+    }
+}
@@ -28,6 +28,13 @@ public class SchedulePeriod {
     @Column(name = "posted_by_user_id")
     private Long postedByUserId;
 
+    // Maintained by the database (V10 trigger + snapshot), read-only here
+    @Column(name = "live_revision", nullable = false, insertable = false, updatable = false)
+    private long liveRevision;
+
+    @Column(name = "published_revision", nullable = false, insertable = false, updatable = false)
+    private long publishedRevision;
+
     // getters/setters
     public Long getId() { return id; }
     public LocalDate getStartDate() { return startDate; }
@@ -40,4 +47,9 @@ public class SchedulePeriod {
     public void setPostedAt(OffsetDateTime postedAt) { this.postedAt = postedAt; }
     public Long getPostedByUserId() { return postedByUserId; }
     public void setPostedByUserId(Long postedByUserId) { this.postedByUserId = postedByUserId; }
+    public long getLiveRevision() { return liveRevision; }
+    public long getPublishedRevision() { return publishedRevision; }
+
+    /** True when assignments changed after the last snapshot. */
+    public boolean isSnapshotStale() { return liveRevision != publishedRevision; }
 }
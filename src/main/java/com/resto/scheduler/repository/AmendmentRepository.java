@@ -4,6 +4,8 @@ import com.resto.scheduler.model.Amendment;
 import com.resto.scheduler.model.enums.Position;
 import com.resto.scheduler.model.enums.ShiftPeriod;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 import java.time.LocalDate;
 import java.util.List;
@@ -14,6 +16,10 @@ public interface AmendmentRepository extends JpaRepository<Amendment, Long> {
     // For coloring/tags in the 14-day builder
     List<Amendment> findByDateBetween(LocalDate start, LocalDate end);
 
+    // Builder "Edited" badges: just the dates
+    @Query("select distinct am.date from Amendment am where am.date between :start and :end")
+    List<LocalDate> findDistinctDatesBetween(@Param("start") LocalDate start, @Param("end") LocalDate end);
+
     // For upserting a single role cell’s amendment
     Optional<Amendment> findBySchedulePeriod_IdAndDateAndPeriodAndPosition(
             Long schedulePeriodId, LocalDate date, ShiftPeriod period, Position position
@@ -21,6 +27,17 @@ public interface AmendmentRepository extends JpaRepository<Amendment, Long> {
 
     List<Amendment> findByDate(LocalDate date);
 
+    // Day page: amendments with their employees + period in one query
+    @Query("""
+      select am from Amendment am
+      join fetch am.schedulePeriod
+      left join fetch am.originalEmployee
+      left join fetch am.newEmployee
+      left join fetch am.changedBy
+      where am.date = :date
+    """)
+    List<Amendment> findWithEmployeesByDate(@Param("date") LocalDate date);
+
     // Returns true if at least one amendment exists for the given period
     boolean existsBySchedulePeriod_Id(Long schedulePeriodId);
 }
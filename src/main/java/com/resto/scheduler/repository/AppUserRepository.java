@@ -2,13 +2,24 @@ package com.resto.scheduler.repository;
 
 import com.resto.scheduler.model.AppUser;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 public interface AppUserRepository extends JpaRepository<AppUser, Long> {
     Optional<AppUser> findByUsername(String username);
     List<AppUser> findByRoles_Name(String name);
+    List<AppUser> findByUsernameIn(Collection<String> usernames);
+
+    // Publish fan-out: every enabled user holding any of the roles, in one query
+    List<AppUser> findDistinctByEnabledTrueAndRoles_NameIn(Collection<String> names);
+
+    @Query("select u.id from AppUser u join u.roles r where r.name = :role")
+    Set<Long> findIdsByRoleName(@Param("role") String role);
 
     // Safety checks for last-enabled-manager protection
     long countByRoles_NameAndEnabled(String name, boolean enabled);
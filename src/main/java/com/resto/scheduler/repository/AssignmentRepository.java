@@ -3,11 +3,16 @@ package com.resto.scheduler.repository;
 import com.resto.scheduler.model.AppUser;
 import com.resto.scheduler.model.Assignment;
 import com.resto.scheduler.model.Shift;
+import com.resto.scheduler.model.enums.Position;
+import com.resto.scheduler.model.enums.ShiftPeriod;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -31,4 +36,66 @@ public interface AssignmentRepository extends JpaRepository<Assignment, Long> {
 
     // Used by Publish preview & Employee schedule (two-week grids)
     List<Assignment> findByShift_DateBetween(LocalDate start, LocalDate end);
+
+    // Same rows with shift + employee loaded in the same round trip (no lazy load per assignment)
+    @Query("""
+      select a from Assignment a
+      join fetch a.shift s
+      join fetch a.employee
+      where s.date between :start and :end
+    """)
+    List<Assignment> findWithShiftAndEmployeeByDateBetween(@Param("start") LocalDate start,
+                                                           @Param("end") LocalDate end);
+
+    // Builder coverage: filled slots per (date, period), no entity hydration
+    interface FilledSlots {
+        LocalDate getDate();
+        ShiftPeriod getPeriod();
+        Long getFilled();
+    }
+
+    @Query("""
+      select s.date as date, s.period as period, count(a.id) as filled
+      from Assignment a join a.shift s
+      where s.date between :start and :end
+        and s.position in :positions
+      group by s.date, s.period
+    """)
+    List<FilledSlots> countFilledByDateAndPeriod(@Param("start") LocalDate start,
+                                                 @Param("end") LocalDate end,
+                                                 @Param("positions") Collection<Position> positions);
+
+    // Candidate index: (date, position, user id) per assignment, no entity hydration
+    interface SlotHolder {
+        LocalDate getDate();
+        Position getPosition();
+        Long getUserId();
+    }
+
+    @Query("""
+      select s.date as date, s.position as position, a.employee.id as userId
+      from Assignment a join a.shift s
+      where s.date between :start and :end
+    """)
+    List<SlotHolder> findSlotHoldersByDateBetween(@Param("start") LocalDate start,
+                                                  @Param("end") LocalDate end);
+
+    // Conflict analysis: one flat row per assignment in the window
+    interface AssignedSlot {
+        LocalDate getDate();
+        ShiftPeriod getPeriod();
+        Position getPosition();
+        Long getUserId();
+        String getFullName();
+    }
+
+    @Query("""
+      select s.date as date, s.period as period, s.position as position,
+             u.id as userId, u.fullName as fullName
+      from Assignment a join a.shift s join a.employee u
+      where s.date between :start and :end
+      order by s.date, s.period, s.position
+    """)
+    List<AssignedSlot> findAssignedSlotsByDateBetween(@Param("start") LocalDate start,
+                                                      @Param("end") LocalDate end);
 }
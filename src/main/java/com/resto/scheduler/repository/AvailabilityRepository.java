@@ -5,6 +5,8 @@ import com.resto.scheduler.model.Availability;
 import com.resto.scheduler.model.enums.RequestStatus;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 import java.time.DayOfWeek;
 import java.util.List;
@@ -19,6 +21,22 @@ public interface AvailabilityRepository extends JpaRepository<Availability, Long
   List<Availability> findByStatus(RequestStatus status);
   List<Availability> findByUserAndStatus(AppUser user, RequestStatus status);
 
+  // Flat rows for the in-memory availability index (no AppUser hydration)
+  interface AvailabilityFlags {
+    Long getUserId();
+    DayOfWeek getDayOfWeek();
+    Boolean getLunchAvailable();
+    Boolean getDinnerAvailable();
+  }
+
+  @Query("""
+    select a.user.id as userId, a.dayOfWeek as dayOfWeek,
+           a.lunchAvailable as lunchAvailable, a.dinnerAvailable as dinnerAvailable
+    from Availability a
+    where a.status is null or a.status = :status
+  """)
+  List<AvailabilityFlags> findFlagsByStatusOrLegacy(@Param("status") RequestStatus status);
+
   @Modifying(clearAutomatically = true, flushAutomatically = true)
   @Transactional
   void deleteByUser(AppUser user);
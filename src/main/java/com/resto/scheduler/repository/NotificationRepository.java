@@ -12,6 +12,7 @@ public interface NotificationRepository extends JpaRepository<Notification, Long
     // Existing methods you had
     List<Notification> findByRecipientOrderByCreatedAtDesc(AppUser user);
     long countByRecipientAndReadIsFalse(AppUser user);
+    long countByRecipientIdAndReadIsFalse(Long recipientId);
     List<Notification> findByRecipientOrderByIdDesc(AppUser recipient);
 
     // For unread/read split on the /notifications page
@@ -0,0 +1,12 @@
+package com.resto.scheduler.repository;
+
+import com.resto.scheduler.model.PublishJob;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import java.util.Optional;
+
+public interface PublishJobRepository extends JpaRepository<PublishJob, Long> {
+
+    // Latest job for a period (publish page progress)
+    Optional<PublishJob> findTopBySchedulePeriodIdOrderByIdDesc(Long schedulePeriodId);
+}
@@ -1,6 +1,8 @@
 package com.resto.scheduler.repository;
 
 import com.resto.scheduler.model.PublishedAssignment;
+import com.resto.scheduler.model.enums.Position;
+import com.resto.scheduler.model.enums.ShiftPeriod;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
@@ -19,6 +21,21 @@ public interface PublishedAssignmentRepository extends JpaRepository<PublishedAs
                                                                     LocalDate start, LocalDate end);
     long countBySchedulePeriod_Id(Long schedulePeriodId);
 
+    // Snapshot diffing: flat rows, no AppUser/SchedulePeriod hydration
+    interface SnapshotRow {
+        LocalDate getDate();
+        ShiftPeriod getPeriod();
+        Position getPosition();
+        Long getUserId();
+    }
+
+    @Query("""
+      select p.date as date, p.period as period, p.position as position, u.id as userId
+      from PublishedAssignment p left join p.user u
+      where p.schedulePeriod.id = :spid
+    """)
+    List<SnapshotRow> findSnapshotRowsByPeriodId(@Param("spid") Long schedulePeriodId);
+
     @Modifying(clearAutomatically = true, flushAutomatically = true)
     @Query("delete from PublishedAssignment p where p.schedulePeriod.id = :spid")
     void deleteAllBySchedulePeriodId(@Param("spid") Long schedulePeriodId);
@@ -5,6 +5,8 @@ import com.resto.scheduler.model.Request;
 import com.resto.scheduler.model.enums.RequestStatus;
 import com.resto.scheduler.model.enums.RequestType;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 import java.time.LocalDate;
 import java.util.List;
@@ -27,4 +29,23 @@ public interface RequestRepository extends JpaRepository<Request, Long> {
             RequestStatus status, LocalDate start, LocalDate end);
 
     List<Request> findByReceiverOrderByCreatedAtDesc(AppUser receiver);
+
+    // Flat (date, requester) rows for the time-off index; avoids loading each requester
+    interface RequesterByDate {
+        LocalDate getRequestDate();
+        Long getUserId();
+        String getFullName();
+    }
+
+    @Query("""
+      select r.requestDate as requestDate, u.id as userId, u.fullName as fullName
+      from Request r join r.requester u
+      where r.type = :type
+        and r.status = :status
+        and r.requestDate between :start and :end
+    """)
+    List<RequesterByDate> findRequestersByTypeAndStatusAndDateBetween(@Param("type") RequestType type,
+                                                                     @Param("status") RequestStatus status,
+                                                                     @Param("start") LocalDate start,
+                                                                     @Param("end") LocalDate end);
 }
@@ -52,4 +52,12 @@ public interface SchedulePeriodRepository extends JpaRepository<SchedulePeriod,
 """)
     Optional<com.resto.scheduler.model.SchedulePeriod> findPostedContaining(@Param("d") LocalDate d);
 
+    // Full POSTED set for PostedPeriodIndex (loaded once, then served from memory)
+    @Query("""
+  select p from SchedulePeriod p
+  where lower(p.status) = 'posted'
+  order by p.startDate asc
+""")
+    List<SchedulePeriod> findAllPostedOrderByStartDate();
+
 }
@@ -0,0 +1,40 @@
+package com.resto.scheduler.service;
+
+import com.resto.scheduler.model.enums.Position;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Published whenever live assignments change for dates in [start, end].
+ * In-memory indexes listen after commit. When the writer knows exactly which slots moved it
+ * lists them in changes and the indexes patch those slots; otherwise (changes == null) they
+ * evict the dates.
+ */
+public record AssignmentsChangedEvent(LocalDate start, LocalDate end, List<SlotChange> changes) {
+
+    /** Position on date now held by userId (null = cleared). */
+    public record SlotChange(LocalDate date, Position position, Long userId) {}
+
+    public AssignmentsChangedEvent(LocalDate start, LocalDate end) {
+        this(start, end, null);
+    }
+
+    public static AssignmentsChangedEvent of(LocalDate date) {
+        return new AssignmentsChangedEvent(date, date);
+    }
+
+    /** Exactly these slots on one date changed. */
+    public static AssignmentsChangedEvent slots(LocalDate date, List<SlotChange> changes) {
+        return new AssignmentsChangedEvent(date, date, List.copyOf(changes));
+    }
+
+    /** Every date (e.g. a user and all their assignments were deleted). */
+    public static AssignmentsChangedEvent all() {
+        return new AssignmentsChangedEvent(LocalDate.MIN, LocalDate.MAX);
+    }
+
+    public boolean covers(LocalDate date) {
+        return !date.isBefore(start) && !date.isAfter(end);
+    }
+}
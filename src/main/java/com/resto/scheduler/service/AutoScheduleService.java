@@ -0,0 +1,194 @@
+package com.resto.scheduler.service;
+
+import com.resto.scheduler.model.AppUser;
+import com.resto.scheduler.model.Assignment;
+import com.resto.scheduler.model.Shift;
+import com.resto.scheduler.model.enums.Position;
+import com.resto.scheduler.model.enums.ShiftPeriod;
+import com.resto.scheduler.repository.AppUserRepository;
+import com.resto.scheduler.repository.AssignmentRepository;
+import com.resto.scheduler.repository.ShiftRepository;
+import com.resto.scheduler.service.ScheduleRoles.RoleOption;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.util.*;
+
+/**
+ * Fills the empty slots of a 14-day DRAFT window from approved availability and time off.
+ * Existing assignments are kept and counted toward fairness; POSTED windows are refused.
+ */
+@Service
+public class AutoScheduleService {
+
+    private static final Logger log = LoggerFactory.getLogger(AutoScheduleService.class);
+
+    public record GenerateResult(int filled, int unfilled) {}
+
+    private static final int DAYS = 14;
+    private static final int PERIODS = ShiftPeriod.values().length;
+    private static final List<RoleOption> SLOTS;
+
+    static {
+        List<RoleOption> slots = new ArrayList<>();
+        for (ShiftPeriod p : ShiftPeriod.values()) {
+            slots.addAll(ScheduleRoles.staffed(p));
+        }
+        SLOTS = List.copyOf(slots);
+    }
+
+    private final AppUserRepository userRepo;
+    private final ShiftRepository shiftRepo;
+    private final AssignmentRepository assignmentRepo;
+    private final PostedPeriodIndex postedPeriodIndex;
+    private final AvailabilityService availabilityService;
+    private final RequestService requestService;
+    private final JdbcTemplate jdbc;
+    private final ApplicationEventPublisher events;
+
+    public AutoScheduleService(AppUserRepository userRepo,
+                               ShiftRepository shiftRepo,
+                               AssignmentRepository assignmentRepo,
+                               PostedPeriodIndex postedPeriodIndex,
+                               AvailabilityService availabilityService,
+                               RequestService requestService,
+                               JdbcTemplate jdbc,
+                               ApplicationEventPublisher events) {
+        this.userRepo = userRepo;
+        this.shiftRepo = shiftRepo;
+        this.assignmentRepo = assignmentRepo;
+        this.postedPeriodIndex = postedPeriodIndex;
+        this.availabilityService = availabilityService;
+        this.requestService = requestService;
+        this.jdbc = jdbc;
+        this.events = events;
+    }
+
+    @Transactional
+    public GenerateResult generateDraft(LocalDate start) {
+        LocalDate end = start.plusDays(DAYS - 1);
+        if (!postedPeriodIndex.overlapping(start, end).isEmpty()) {
+            throw new IllegalStateException("This window overlaps a POSTED period. Generate only fills drafts.");
+        }
+
+        // Staff (enabled, de-duplicated) -> dense indexes
+        Map<Long, AppUser> byId = new LinkedHashMap<>();
+        Set<Long> managerIds = new HashSet<>();
+        for (AppUser u : userRepo.findByRoles_Name("EMPLOYEE")) {
+            if (u.isEnabled()) byId.putIfAbsent(u.getId(), u);
+        }
+        for (AppUser u : userRepo.findByRoles_Name("MANAGER")) {
+            if (u.isEnabled()) {
+                byId.putIfAbsent(u.getId(), u);
+                managerIds.add(u.getId());
+            }
+        }
+        List<AppUser> staff = new ArrayList<>(byId.values());
+        Map<Long, Integer> indexOf = new HashMap<>();
+        boolean[] manager = new boolean[staff.size()];
+        for (int i = 0; i < staff.size(); i++) {
+            indexOf.put(staff.get(i).getId(), i);
+            manager[i] = managerIds.contains(staff.get(i).getId());
+        }
+
+        // Eligibility = approved availability for the weekday/period and no approved time off that date
+        TimeOffIndex timeOff = requestService.getApprovedTimeOffIndex(start, end);
+        boolean[] openDay = new boolean[DAYS];
+        boolean[][] eligible = new boolean[DAYS * PERIODS][staff.size()];
+        for (int d = 0; d < DAYS; d++) {
+            LocalDate date = start.plusDays(d);
+            openDay[d] = ScheduleRoles.isOpen(date.getDayOfWeek());
+            if (!openDay[d]) continue;
+            Set<Long> off = timeOff.userIdsOn(date);
+            for (ShiftPeriod period : ShiftPeriod.values()) {
+                boolean[] row = eligible[d * PERIODS + period.ordinal()];
+                for (int i = 0; i < staff.size(); i++) {
+                    Long id = staff.get(i).getId();
+                    row[i] = !off.contains(id) && availabilityService.isAvailable(id, date.getDayOfWeek(), period);
+                }
+            }
+        }
+
+        // Slot layout + what is already assigned
+        int[] slotPeriod = new int[SLOTS.size()];
+        boolean[] managerOnly = new boolean[SLOTS.size()];
+        Map<Position, Integer> slotOf = new EnumMap<>(Position.class);
+        for (int s = 0; s < SLOTS.size(); s++) {
+            slotPeriod[s] = SLOTS.get(s).period().ordinal();
+            managerOnly[s] = SLOTS.get(s).position() == Position.LUNCH_MANAGER;
+            slotOf.put(SLOTS.get(s).position(), s);
+        }
+
+        int[][] prefilled = new int[DAYS][SLOTS.size()];
+        for (int[] row : prefilled) Arrays.fill(row, ScheduleSolver.EMPTY);
+        for (Assignment a : assignmentRepo.findWithShiftAndEmployeeByDateBetween(start, end)) {
+            int d = (int) (a.getShift().getDate().toEpochDay() - start.toEpochDay());
+            Integer who = indexOf.get(a.getEmployee().getId());
+            Integer s = slotOf.get(a.getShift().getPosition());
+            if (s == null) {
+                // A hidden position the solver does not fill: its holder is still busy that period
+                if (who != null) eligible[d * PERIODS + a.getShift().getPeriod().ordinal()][who] = false;
+                continue;
+            }
+            // Disabled/non-staff assignees still block the slot, they just do not count toward fairness
+            prefilled[d][s] = (who != null) ? who : ScheduleSolver.BLOCKED;
+        }
+
+        long t0 = System.nanoTime();
+        int[][] solved = ScheduleSolver.solve(new ScheduleSolver.Problem(
+                staff.size(), manager, openDay, slotPeriod, managerOnly, eligible, prefilled, PERIODS));
+        long solveMicros = (System.nanoTime() - t0) / 1_000;
+
+        // Collect new assignments (slots that were empty and got someone)
+        List<Object[]> newShifts = new ArrayList<>();
+        List<long[]> picks = new ArrayList<>(); // {dayIndex, slotIndex, userId}
+        int unfilled = 0;
+        for (int d = 0; d < DAYS; d++) {
+            if (!openDay[d]) continue;
+            for (int s = 0; s < SLOTS.size(); s++) {
+                if (prefilled[d][s] != ScheduleSolver.EMPTY) continue;
+                int who = solved[d][s];
+                if (who < 0) {
+                    unfilled++;
+                    continue;
+                }
+                RoleOption ro = SLOTS.get(s);
+                newShifts.add(new Object[]{start.plusDays(d), ro.period().name(), ro.position().name()});
+                picks.add(new long[]{d, s, staff.get(who).getId()});
+            }
+        }
+
+        if (!picks.isEmpty()) {
+            jdbc.batchUpdate("""
+                    insert into shift (date, period, "position") values (?, ?, ?)
+                    on conflict (date, period, "position") do nothing
+                    """, newShifts);
+
+            Map<String, Long> shiftIds = new HashMap<>();
+            for (Shift sh : shiftRepo.findByDateBetween(start, end)) {
+                shiftIds.put(sh.getDate() + "|" + sh.getPosition(), sh.getId());
+            }
+
+            List<Object[]> rows = new ArrayList<>(picks.size());
+            for (long[] pick : picks) {
+                LocalDate date = start.plusDays(pick[0]);
+                Long shiftId = shiftIds.get(date + "|" + SLOTS.get((int) pick[1]).position());
+                if (shiftId != null) rows.add(new Object[]{shiftId, pick[2]});
+            }
+            jdbc.batchUpdate("""
+                    insert into assignment (shift_id, user_id) values (?, ?)
+                    on conflict (shift_id) do nothing
+                    """, rows);
+            events.publishEvent(new AssignmentsChangedEvent(start, end));
+        }
+
+        log.info("Auto-schedule {}..{}: staff={}, filled={}, unfilled={}, solve={}us",
+                start, end, staff.size(), picks.size(), unfilled, solveMicros);
+        return new GenerateResult(picks.size(), unfilled);
+    }
+}
@@ -1 +1,14 @@
-package com.resto.scheduler.service; public interface AvailabilityService {}
\ No newline at end of file
+package com.resto.scheduler.service;
+
+import com.resto.scheduler.model.enums.ShiftPeriod;
+
+import java.time.DayOfWeek;
+
+public interface AvailabilityService {
+
+    /** True if the user has APPROVED (or legacy null-status) availability for this weekday + period. */
+    boolean isAvailable(Long userId, DayOfWeek day, ShiftPeriod period);
+
+    /** Drop the cached index; the next lookup reloads all approved availability in one query. */
+    void invalidate();
+}
@@ -0,0 +1,182 @@
+package com.resto.scheduler.service;
+
+import com.resto.scheduler.model.AppUser;
+import com.resto.scheduler.model.enums.Position;
+import com.resto.scheduler.model.enums.RequestStatus;
+import com.resto.scheduler.model.enums.RequestType;
+import com.resto.scheduler.repository.AppUserRepository;
+import com.resto.scheduler.repository.AssignmentRepository;
+import com.resto.scheduler.repository.RequestRepository;
+import com.resto.scheduler.service.AssignmentsChangedEvent.SlotChange;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.LocalDate;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * In-memory view of who holds which position on each date, who has approved time off, plus
+ * the staff roster. Dates are loaded on demand (one range query for whatever is missing).
+ * After an AssignmentsChangedEvent commits, the listed slots are patched in place (bulk changes
+ * evict their dates instead); a TimeOffChangedEvent drops that date's time off.
+ */
+@Component
+public class CandidateIndex {
+
+    public record StaffMember(long id, String username, String fullName, boolean manager) {}
+
+    private static final int POSITIONS = Position.values().length;
+
+    private final AssignmentRepository assignmentRepo;
+    private final AppUserRepository userRepo;
+    private final RequestRepository requestRepo;
+
+    // date -> user id per Position ordinal (0 = empty); arrays are replaced, never written in place
+    private final Map<LocalDate, long[]> days = new ConcurrentHashMap<>();
+    private final AtomicLong generation = new AtomicLong();
+    // date -> users with approved time off
+    private final Map<LocalDate, Set<Long>> timeOff = new ConcurrentHashMap<>();
+    private final AtomicLong timeOffGeneration = new AtomicLong();
+    private volatile List<StaffMember> roster;
+    private final AtomicLong rosterGeneration = new AtomicLong();
+
+    public CandidateIndex(AssignmentRepository assignmentRepo,
+                          AppUserRepository userRepo,
+                          RequestRepository requestRepo) {
+        this.assignmentRepo = assignmentRepo;
+        this.userRepo = userRepo;
+        this.requestRepo = requestRepo;
+    }
+
+    /** Holder of each position on the date (index = Position ordinal, 0 = empty). Loads if needed. */
+    public long[] day(LocalDate date) {
+        return range(date, date).get(date);
+    }
+
+    /**
+     * Holders for every date in [start, end]; missing dates are fetched in one query.
+     * Dates read while an edit commits are returned but not cached.
+     */
+    public Map<LocalDate, long[]> range(LocalDate start, LocalDate end) {
+        while (true) {
+            Map<LocalDate, long[]> loaded = ensureLoaded(start, end);
+            Map<LocalDate, long[]> out = new HashMap<>();
+            LocalDate d = start;
+            for (; !d.isAfter(end); d = d.plusDays(1)) {
+                long[] slots = days.getOrDefault(d, loaded.get(d));
+                if (slots == null) {
+                    break; // cached when checked, evicted since; read again
+                }
+                out.put(d, slots);
+            }
+            if (d.isAfter(end)) {
+                return out;
+            }
+        }
+    }
+
+    // Fetches the uncached dates of [start, end] and returns what it read
+    private Map<LocalDate, long[]> ensureLoaded(LocalDate start, LocalDate end) {
+        LocalDate first = null;
+        LocalDate last = null;
+        for (LocalDate d = start; !d.isAfter(end); d = d.plusDays(1)) {
+            if (!days.containsKey(d)) {
+                if (first == null) first = d;
+                last = d;
+            }
+        }
+        if (first == null) {
+            return Map.of();
+        }
+
+        long gen = generation.get();
+        Map<LocalDate, long[]> loaded = new HashMap<>();
+        for (LocalDate d = first; !d.isAfter(last); d = d.plusDays(1)) {
+            loaded.put(d, new long[POSITIONS]);
+        }
+        for (var row : assignmentRepo.findSlotHoldersByDateBetween(first, last)) {
+            long[] slots = loaded.get(row.getDate());
+            if (slots != null && row.getPosition() != null && row.getUserId() != null) {
+                slots[row.getPosition().ordinal()] = row.getUserId();
+            }
+        }
+        // An edit committed while we were loading: skip caching, the next call reloads
+        if (generation.get() == gen) {
+            loaded.forEach(days::putIfAbsent);
+        }
+        return loaded;
+    }
+
+    /** Users with approved time off on the date. Loads the date if needed. */
+    public Set<Long> timeOffOn(LocalDate date) {
+        Set<Long> cached = timeOff.get(date);
+        if (cached != null) {
+            return cached;
+        }
+        long gen = timeOffGeneration.get();
+        Set<Long> loaded = new HashSet<>();
+        for (var row : requestRepo.findRequestersByTypeAndStatusAndDateBetween(
+                RequestType.TIME_OFF, RequestStatus.APPROVED, date, date)) {
+            loaded.add(row.getUserId());
+        }
+        loaded = Set.copyOf(loaded);
+        if (timeOffGeneration.get() == gen) {
+            timeOff.putIfAbsent(date, loaded);
+        }
+        return loaded;
+    }
+
+    /** Enabled employees + managers (cached until a user is created/toggled/deleted). */
+    public List<StaffMember> roster() {
+        List<StaffMember> current = roster;
+        if (current != null) {
+            return current;
+        }
+        long gen = rosterGeneration.get();
+        Map<Long, StaffMember> byId = new LinkedHashMap<>();
+        for (AppUser u : userRepo.findByRoles_Name("MANAGER")) {
+            if (u.isEnabled()) byId.put(u.getId(), new StaffMember(u.getId(), u.getUsername(), u.getFullName(), true));
+        }
+        for (AppUser u : userRepo.findByRoles_Name("EMPLOYEE")) {
+            if (u.isEnabled()) byId.putIfAbsent(u.getId(), new StaffMember(u.getId(), u.getUsername(), u.getFullName(), false));
+        }
+        current = List.copyOf(byId.values());
+        synchronized (this) {
+            // A user changed while we were loading: serve this list, but do not cache it
+            if (rosterGeneration.get() == gen) {
+                roster = current;
+            }
+        }
+        return current;
+    }
+
+    public synchronized void invalidateRoster() {
+        rosterGeneration.incrementAndGet();
+        roster = null;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onAssignmentsChanged(AssignmentsChangedEvent event) {
+        generation.incrementAndGet();
+        if (event.changes() == null) {
+            days.keySet().removeIf(event::covers);
+            return;
+        }
+        // Only dates already cached are patched; the rest load fresh when first asked for
+        for (SlotChange change : event.changes()) {
+            days.computeIfPresent(change.date(), (date, slots) -> {
+                long[] next = slots.clone();
+                next[change.position().ordinal()] = change.userId() != null ? change.userId() : 0;
+                return next;
+            });
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onTimeOffChanged(TimeOffChangedEvent event) {
+        timeOffGeneration.incrementAndGet();
+        timeOff.remove(event.date());
+    }
+}
@@ -0,0 +1,148 @@
+package com.resto.scheduler.service;
+
+import com.resto.scheduler.model.enums.Position;
+import com.resto.scheduler.model.enums.ShiftPeriod;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Copies the assignments of one 2-week window into another in a single statement.
+ * The source rows are checked against approved time off, approved availability,
+ * disabled accounts, already-filled target slots and people already working that target
+ * date and period in SQL; only clean rows are inserted, and every source row comes back
+ * with its outcome so skipped ones can be reported.
+ */
+@Service
+public class CopyForwardService {
+
+    private static final Logger log = LoggerFactory.getLogger(CopyForwardService.class);
+
+    public record Skipped(LocalDate date, ShiftPeriod period, Position position, String employeeName, String reason) {}
+
+    public record CopyResult(int copied, List<Skipped> skipped) {}
+
+    private static final int DAYS = 14;
+
+    // checked  : source rows moved by the offset, with the first reason (if any) they cannot be copied
+    // new_shifts / targets : create missing target shifts, resolve the shift id for each clean row
+    // ins      : the actual copy; a slot filled concurrently shows up as OCCUPIED via the left join
+    private static final String COPY_SQL = """
+            with src as (
+                select s.date + ?::int as date, s.period, s."position", a.user_id
+                from assignment a
+                join shift s on s.id = a.shift_id
+                where s.date between ? and ?
+            ),
+            checked as (
+                select src.*,
+                       case
+                           when not u.enabled then 'DISABLED'
+                           when exists (select 1 from request r
+                                        where r.requester_id = src.user_id
+                                          and r.type = 'TIME_OFF' and r.status = 'APPROVED'
+                                          and r.request_date = src.date) then 'TIME_OFF'
+                           when not exists (select 1 from availability av
+                                            where av.user_id = src.user_id
+                                              and (av.status is null or av.status = 'APPROVED')
+                                              and av.day_of_week = to_char(src.date, 'FMDAY')
+                                              and case src.period when 'LUNCH' then av.lunch_available
+                                                                  else av.dinner_available end) then 'AVAILABILITY'
+                           when exists (select 1 from shift t join assignment ta on ta.shift_id = t.id
+                                        where t.date = src.date and t.period = src.period
+                                          and t."position" = src."position") then 'OCCUPIED'
+                           when exists (select 1 from shift t join assignment ta on ta.shift_id = t.id
+                                        where t.date = src.date and t.period = src.period
+                                          and ta.user_id = src.user_id) then 'DOUBLE_BOOKED'
+                       end as reason
+                from src
+                join app_user u on u.id = src.user_id
+            ),
+            new_shifts as (
+                insert into shift (date, period, "position")
+                select date, period, "position" from checked where reason is null
+                on conflict (date, period, "position") do nothing
+                returning id, date, period, "position"
+            ),
+            targets as (
+                select c.date, c.period, c."position", c.user_id, coalesce(ns.id, s.id) as shift_id
+                from checked c
+                left join new_shifts ns on ns.date = c.date and ns.period = c.period and ns."position" = c."position"
+                left join shift s on s.date = c.date and s.period = c.period and s."position" = c."position"
+                where c.reason is null
+            ),
+            ins as (
+                insert into assignment (shift_id, user_id)
+                select shift_id, user_id from targets
+                on conflict (shift_id) do nothing
+                returning shift_id
+            )
+            select c.date, c.period, c."position", u.full_name,
+                   coalesce(c.reason, case when i.shift_id is null then 'OCCUPIED' end) as reason
+            from checked c
+            join app_user u on u.id = c.user_id
+            left join targets t on t.date = c.date and t.period = c.period and t."position" = c."position"
+            left join ins i on i.shift_id = t.shift_id
+            order by c.date, c.period, c."position"
+            """;
+
+    private final PostedPeriodIndex postedPeriodIndex;
+    private final JdbcTemplate jdbc;
+    private final ApplicationEventPublisher events;
+
+    public CopyForwardService(PostedPeriodIndex postedPeriodIndex,
+                              JdbcTemplate jdbc,
+                              ApplicationEventPublisher events) {
+        this.postedPeriodIndex = postedPeriodIndex;
+        this.jdbc = jdbc;
+        this.events = events;
+    }
+
+    /**
+     * Copy [sourceStart, sourceStart+13] onto [targetStart, targetStart+13].
+     * Whole weeks only, so weekdays (and availability) line up. POSTED targets are refused.
+     */
+    @Transactional
+    public CopyResult copy(LocalDate sourceStart, LocalDate targetStart) {
+        long offset = ChronoUnit.DAYS.between(sourceStart, targetStart);
+        if (offset == 0 || offset % 7 != 0) {
+            throw new IllegalArgumentException("Copy source and target must be different whole weeks apart.");
+        }
+        LocalDate targetEnd = targetStart.plusDays(DAYS - 1);
+        if (!postedPeriodIndex.overlapping(targetStart, targetEnd).isEmpty()) {
+            throw new IllegalStateException("The target window overlaps a POSTED period. Copy only fills drafts.");
+        }
+
+        long t0 = System.nanoTime();
+        List<Skipped> skipped = new ArrayList<>();
+        int[] copied = {0};
+        jdbc.query(COPY_SQL, rs -> {
+            String reason = rs.getString("reason");
+            if (reason == null) {
+                copied[0]++;
+                return;
+            }
+            skipped.add(new Skipped(
+                    rs.getObject("date", LocalDate.class),
+                    ShiftPeriod.valueOf(rs.getString("period")),
+                    Position.valueOf(rs.getString("position")),
+                    rs.getString("full_name"),
+                    reason));
+        }, (int) offset, sourceStart, sourceStart.plusDays(DAYS - 1));
+
+        if (copied[0] > 0) {
+            events.publishEvent(new AssignmentsChangedEvent(targetStart, targetEnd));
+        }
+        log.info("Copy {} -> {}: copied={}, skipped={}, took={}ms",
+                sourceStart, targetStart, copied[0], skipped.size(), (System.nanoTime() - t0) / 1_000_000);
+        return new CopyResult(copied[0], skipped);
+    }
+}
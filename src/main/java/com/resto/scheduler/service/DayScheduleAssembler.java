@@ -0,0 +1,73 @@
+package com.resto.scheduler.service;
+
+import com.resto.scheduler.model.Amendment;
+import com.resto.scheduler.model.AppUser;
+import com.resto.scheduler.model.Assignment;
+import com.resto.scheduler.repository.AmendmentRepository;
+import com.resto.scheduler.repository.AssignmentRepository;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Builds the saved/amended maps for one day page from two fetch-join queries
+ * (assignments+shift+employee, amendments+employees) instead of lazy loads per row.
+ */
+@Service
+public class DayScheduleAssembler {
+
+    /** Everything the day page needs about what is already saved, keyed by "role_*". */
+    public record DaySchedule(List<Assignment> assignments,
+                              Map<String, String> saved,
+                              Map<String, String> savedDisplayNames,
+                              Map<String, String> amended) {}
+
+    private final AssignmentRepository assignmentRepo;
+    private final AmendmentRepository amendmentRepo;
+
+    public DayScheduleAssembler(AssignmentRepository assignmentRepo,
+                                AmendmentRepository amendmentRepo) {
+        this.assignmentRepo = assignmentRepo;
+        this.amendmentRepo = amendmentRepo;
+    }
+
+    @Transactional(readOnly = true)
+    public DaySchedule assemble(LocalDate date) {
+        List<Assignment> assignments = assignmentRepo.findWithShiftAndEmployeeByDateBetween(date, date);
+
+        // Saved selections (username values) + display names, one pass
+        Map<String, String> saved = new HashMap<>();
+        Map<String, String> savedDisplayNames = new HashMap<>();
+        for (Assignment a : assignments) {
+            var ro = ScheduleRoles.bySlot(a.getShift().getPeriod(), a.getShift().getPosition());
+            AppUser emp = a.getEmployee();
+            if (ro == null || emp == null) {
+                continue;
+            }
+            saved.put(ro.key(), emp.getUsername());
+            savedDisplayNames.put(ro.key(), displayName(emp));
+        }
+
+        // Amendments (for posted periods)
+        Map<String, String> amended = new HashMap<>();
+        for (Amendment am : amendmentRepo.findWithEmployeesByDate(date)) {
+            var ro = ScheduleRoles.bySlot(am.getPeriod(), am.getPosition());
+            if (ro == null) {
+                continue;
+            }
+            String orig = (am.getOriginalEmployee() != null) ? am.getOriginalEmployee().getFullName() : "—";
+            String now  = (am.getNewEmployee()      != null) ? am.getNewEmployee().getFullName()      : "—";
+            amended.put(ro.key(), orig + " → " + now);
+        }
+
+        return new DaySchedule(assignments, saved, savedDisplayNames, amended);
+    }
+
+    private static String displayName(AppUser u) {
+        return (u.getFullName() != null && !u.getFullName().isBlank()) ? u.getFullName() : u.getUsername();
+    }
+}
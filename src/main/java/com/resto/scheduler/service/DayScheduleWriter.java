@@ -0,0 +1,217 @@
+package com.resto.scheduler.service;
+
+import com.resto.scheduler.model.AppUser;
+import com.resto.scheduler.model.Assignment;
+import com.resto.scheduler.model.Shift;
+import com.resto.scheduler.model.enums.Position;
+import com.resto.scheduler.repository.AppUserRepository;
+import com.resto.scheduler.repository.AssignmentRepository;
+import com.resto.scheduler.repository.ShiftRepository;
+import com.resto.scheduler.service.AssignmentsChangedEvent.SlotChange;
+import com.resto.scheduler.service.ScheduleRoles.RoleOption;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.*;
+
+/**
+ * Write path for the manager day page.
+ * Preloads shifts, current assignments and every referenced user up front, diffs in memory,
+ * then applies inserts/updates/deletes/amendment upserts as JDBC batches in one transaction.
+ */
+@Service
+public class DayScheduleWriter {
+
+    private static final ZoneId APP_ZONE = ZoneId.of("America/Los_Angeles");
+
+    private static final String INSERT_SHIFT = """
+            insert into shift (date, period, "position") values (?, ?, ?)
+            on conflict (date, period, "position") do nothing
+            """;
+    private static final String INSERT_ASSIGNMENT =
+            "insert into assignment (shift_id, user_id) values (?, ?)";
+    private static final String UPDATE_ASSIGNMENT =
+            "update assignment set user_id = ? where id = ?";
+    private static final String DELETE_ASSIGNMENT =
+            "delete from assignment where id = ?";
+    // original_employee_id is captured once (on insert); later edits only move new_employee_id
+    private static final String UPSERT_AMENDMENT = """
+            insert into amendment (schedule_period_id, date, period, position,
+                                   original_employee_id, new_employee_id, changed_by, changed_at)
+            values (?, ?, ?, ?, ?, ?, ?, ?)
+            on conflict (schedule_period_id, date, period, position)
+            do update set new_employee_id = excluded.new_employee_id,
+                          changed_by      = excluded.changed_by,
+                          changed_at      = excluded.changed_at
+            """;
+
+    private final AppUserRepository userRepo;
+    private final ShiftRepository shiftRepo;
+    private final AssignmentRepository assignmentRepo;
+    private final JdbcTemplate jdbc;
+    private final ApplicationEventPublisher events;
+
+    public DayScheduleWriter(AppUserRepository userRepo,
+                             ShiftRepository shiftRepo,
+                             AssignmentRepository assignmentRepo,
+                             JdbcTemplate jdbc,
+                             ApplicationEventPublisher events) {
+        this.userRepo = userRepo;
+        this.shiftRepo = shiftRepo;
+        this.assignmentRepo = assignmentRepo;
+        this.jdbc = jdbc;
+        this.events = events;
+    }
+
+    /**
+     * Apply the submitted role_* selections for one date.
+     *
+     * @param selections     form params; only known "role_*" keys are used, blank value = unassign
+     * @param postedPeriodId posted period containing the date, or null
+     * @param recordAmendments true when editing a posted day via override (upserts Amendment rows)
+     * @param changerUsername who made the change (nullable)
+     */
+    @Transactional
+    public void saveDay(LocalDate date,
+                        Map<String, String> selections,
+                        Long postedPeriodId,
+                        boolean recordAmendments,
+                        String changerUsername) {
+        // 1) Requested value per role (null = clear)
+        Map<RoleOption, String> requested = new LinkedHashMap<>();
+        for (Map.Entry<String, String> e : selections.entrySet()) {
+            if (!e.getKey().startsWith("role_")) continue;
+            RoleOption ro = ScheduleRoles.byKey(e.getKey());
+            if (ro == null) continue;
+            String username = e.getValue();
+            requested.put(ro, (username == null || username.isBlank()) ? null : username);
+        }
+        if (requested.isEmpty()) {
+            return;
+        }
+
+        // 2) Every referenced user (plus the changer) in one IN query
+        Set<String> usernames = new HashSet<>();
+        for (String u : requested.values()) {
+            if (u != null) usernames.add(u);
+        }
+        if (changerUsername != null) usernames.add(changerUsername);
+
+        Map<String, AppUser> usersByName = new HashMap<>();
+        if (!usernames.isEmpty()) {
+            for (AppUser u : userRepo.findByUsernameIn(usernames)) {
+                usersByName.put(u.getUsername(), u);
+            }
+        }
+        AppUser changer = (changerUsername != null) ? usersByName.get(changerUsername) : null;
+
+        // Lunch Manager must be a MANAGER; unknown usernames are ignored (same as before)
+        requested.entrySet().removeIf(e -> {
+            String username = e.getValue();
+            if (username == null) return false;
+            AppUser user = usersByName.get(username);
+            if (user == null) return true;
+            return e.getKey().position() == Position.LUNCH_MANAGER && !isManager(user);
+        });
+
+        // 3) Shifts for the date; create only the ones we are about to assign into
+        Map<Position, Shift> shifts = shiftsByPosition(date);
+        List<Object[]> newShifts = new ArrayList<>();
+        for (Map.Entry<RoleOption, String> e : requested.entrySet()) {
+            RoleOption ro = e.getKey();
+            if (e.getValue() != null && !shifts.containsKey(ro.position())) {
+                newShifts.add(new Object[]{date, ro.period().name(), ro.position().name()});
+            }
+        }
+        if (!newShifts.isEmpty()) {
+            jdbc.batchUpdate(INSERT_SHIFT, newShifts);
+            shifts = shiftsByPosition(date);
+        }
+
+        // 4) Current assignments (shift + employee fetch-joined)
+        Map<Long, Assignment> currentByShiftId = new HashMap<>();
+        for (Assignment a : assignmentRepo.findWithShiftAndEmployeeByDateBetween(date, date)) {
+            currentByShiftId.put(a.getShift().getId(), a);
+        }
+
+        // 5) Diff
+        List<Object[]> inserts = new ArrayList<>();
+        List<Object[]> updates = new ArrayList<>();
+        List<Object[]> deletes = new ArrayList<>();
+        List<Object[]> amendments = new ArrayList<>();
+        List<SlotChange> changes = new ArrayList<>();
+        LocalDateTime now = LocalDateTime.now(APP_ZONE);
+
+        for (Map.Entry<RoleOption, String> e : requested.entrySet()) {
+            RoleOption ro = e.getKey();
+            Shift shift = shifts.get(ro.position());
+            if (shift == null) {
+                continue; // clearing a slot that never existed
+            }
+
+            Assignment current = currentByShiftId.get(shift.getId());
+            Long oldId = (current != null && current.getEmployee() != null) ? current.getEmployee().getId() : null;
+            AppUser newEmp = (e.getValue() != null) ? usersByName.get(e.getValue()) : null;
+            Long newId = (newEmp != null) ? newEmp.getId() : null;
+
+            if (newId == null) {
+                if (current != null) deletes.add(new Object[]{current.getId()});
+            } else if (current == null) {
+                inserts.add(new Object[]{shift.getId(), newId});
+            } else if (!newId.equals(oldId)) {
+                updates.add(new Object[]{newId, current.getId()});
+            }
+            if (!Objects.equals(oldId, newId) || (newId == null && current != null)) {
+                changes.add(new SlotChange(date, ro.position(), newId));
+            }
+
+            if (postedPeriodId != null && recordAmendments && !Objects.equals(oldId, newId)) {
+                amendments.add(new Object[]{
+                        postedPeriodId, date, ro.period().name(), ro.position().name(),
+                        oldId, newId, changer != null ? changer.getId() : null, now
+                });
+            }
+        }
+
+        // 6) Apply as batches
+        if (!deletes.isEmpty())    jdbc.batchUpdate(DELETE_ASSIGNMENT, deletes);
+        if (!updates.isEmpty())    jdbc.batchUpdate(UPDATE_ASSIGNMENT, updates);
+        if (!inserts.isEmpty())    jdbc.batchUpdate(INSERT_ASSIGNMENT, inserts);
+        if (!amendments.isEmpty()) jdbc.batchUpdate(UPSERT_AMENDMENT, amendments);
+
+        if (!changes.isEmpty()) {
+            events.publishEvent(AssignmentsChangedEvent.slots(date, changes));
+        }
+    }
+
+    /** Remove every assignment on the date with a single statement. */
+    @Transactional
+    public int clearDay(LocalDate date) {
+        int removed = jdbc.update("""
+                delete from assignment a
+                using shift s
+                where a.shift_id = s.id and s.date = ?
+                """, date);
+        if (removed > 0) {
+            events.publishEvent(AssignmentsChangedEvent.of(date));
+        }
+        return removed;
+    }
+
+    private Map<Position, Shift> shiftsByPosition(LocalDate date) {
+        Map<Position, Shift> out = new EnumMap<>(Position.class);
+        for (Shift s : shiftRepo.findByDate(date)) {
+            if (s.getPosition() != null) out.put(s.getPosition(), s);
+        }
+        return out;
+    }
+
+    private static boolean isManager(AppUser u) {
+        return u.getRoles() != null && u.getRoles().stream().anyMatch(r -> "MANAGER".equals(r.getName()));
+    }
+}
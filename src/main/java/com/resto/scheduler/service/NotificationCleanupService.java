@@ -2,6 +2,7 @@ package com.resto.scheduler.service;
 
 import com.resto.scheduler.repository.NotificationRepository;
 import jakarta.transaction.Transactional;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 
@@ -12,9 +13,15 @@ import java.time.temporal.ChronoUnit;
 public class NotificationCleanupService {
 
     private final NotificationRepository notificationRepo;
+    private final JdbcTemplate jdbc;
+    private final UnreadCountCache unreadCountCache;
 
-    public NotificationCleanupService(NotificationRepository notificationRepo) {
+    public NotificationCleanupService(NotificationRepository notificationRepo,
+                                      JdbcTemplate jdbc,
+                                      UnreadCountCache unreadCountCache) {
         this.notificationRepo = notificationRepo;
+        this.jdbc = jdbc;
+        this.unreadCountCache = unreadCountCache;
     }
 
     /**
@@ -26,6 +33,8 @@ public class NotificationCleanupService {
     @Transactional
     public void scheduledCleanup() {
         deleteNotificationsOlderThanDays(14);
+        // Delivered texts are only kept as long as the notifications they went with
+        jdbc.update("delete from sms_outbox where status = 'SENT' and created_at < now() - interval '14 days'");
     }
 
     /**
@@ -39,6 +48,9 @@ public class NotificationCleanupService {
     @Transactional
     public long deleteNotificationsOlderThanDays(long days) {
         Instant cutoff = Instant.now().minus(days, ChronoUnit.DAYS);
-        return notificationRepo.deleteByCreatedAtBefore(cutoff);
+        long deleted = notificationRepo.deleteByCreatedAtBefore(cutoff);
+        // Old unread rows may be among them
+        unreadCountCache.invalidateAll();
+        return deleted;
     }
 }
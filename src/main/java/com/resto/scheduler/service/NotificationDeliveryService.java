@@ -4,19 +4,92 @@ import com.resto.scheduler.model.AppUser;
 import com.resto.scheduler.model.Notification;
 import com.resto.scheduler.model.enums.NotificationType;
 import com.resto.scheduler.repository.NotificationRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
+import java.sql.PreparedStatement;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * In-app notifications plus their SMS.
+ * Texts are never sent from here: they are written to sms_outbox in the caller's transaction
+ * and SmsOutboxDispatcher sends them after commit, so a rollback sends nothing and no
+ * connection is held open while SNS answers.
+ *
+ * With app.sms.coalesce.window-ms > 0 a text is held that long, and any other text to the same
+ * phone queued meanwhile is merged into it, so a burst (republish + trade decisions) goes out
+ * as one digest SMS.
+ *
+ * A digest belongs to the publish job of the first text that has one (publish_job_id), and the
+ * dispatcher counts it as one text on that job. A publish text merged into a digest another job
+ * (or no job) already owns is still delivered, but is not counted on its own job.
+ */
 @Service
 public class NotificationDeliveryService {
 
+    /** What happened to the SMS half of a notification. */
+    public enum SmsOutcome { QUEUED, SKIPPED }
+
+    /**
+     * Result of a bulk fan-out, all in the caller's transaction: in-app rows written, texts queued
+     * (new rows or merged into a digest), and how many outbox rows the publish job owns. Only the
+     * last are counted off as sent or failed on the job.
+     */
+    public record BulkResult(int notified, int smsQueued, int smsOnJob) {}
+
+    // One statement for the whole recipient set: the ids go in as a single array parameter
+    private static final String BULK_INSERT = """
+            insert into notification (recipient_id, type, payload, is_read, created_at)
+            select r.id, ?, ?, false, now()
+            from unnest(?) as r(id)
+            """;
+
+    // Digest bodies stop growing here, leaving room for the "+N more" line the dispatcher adds
+    private static final int DIGEST_LIMIT = 1500;
+
+    // Merges into the phone's open digest if there is one (uq_sms_outbox_coalescing), else queues a new row
+    private static final String OUTBOX_INSERT = """
+            insert into sms_outbox (recipient_id, phone_number, message, publish_job_id, next_attempt_at, coalescing, queued_by)
+            select r.id, r.phone, ?, ?, now() + ? * interval '1 millisecond', ?, ?
+            from unnest(?, ?) as r(id, phone)
+            on conflict (phone_number) where coalescing do update set
+                message = case when length(sms_outbox.message) + length(excluded.message) + 2 <= %1$d
+                               then sms_outbox.message || E'\\n\\n' || excluded.message
+                               else sms_outbox.message end,
+                overflow_count = sms_outbox.overflow_count
+                               + case when length(sms_outbox.message) + length(excluded.message) + 2 <= %1$d
+                                      then 0 else 1 end,
+                merged_count = sms_outbox.merged_count + 1,
+                recipient_id = coalesce(sms_outbox.recipient_id, excluded.recipient_id),
+                publish_job_id = coalesce(sms_outbox.publish_job_id, excluded.publish_job_id)
+            returning publish_job_id
+            """.formatted(DIGEST_LIMIT);
+
     private final NotificationRepository notificationRepository;
-    private final SmsService smsService;
+    private final SmsOutboxDispatcher smsOutboxDispatcher;
+    private final JdbcTemplate jdbc;
+    private final NotificationRelay notificationRelay;
+    private final long coalesceWindowMs;
 
     public NotificationDeliveryService(NotificationRepository notificationRepository,
-                                       SmsService smsService) {
+                                       SmsOutboxDispatcher smsOutboxDispatcher,
+                                       JdbcTemplate jdbc,
+                                       NotificationRelay notificationRelay,
+                                       @Value("${app.sms.coalesce.window-ms:0}") long coalesceWindowMs) {
         this.notificationRepository = notificationRepository;
-        this.smsService = smsService;
+        this.smsOutboxDispatcher = smsOutboxDispatcher;
+        this.jdbc = jdbc;
+        this.notificationRelay = notificationRelay;
+        this.coalesceWindowMs = Math.max(0, coalesceWindowMs);
     }
 
     @Transactional
@@ -30,18 +103,99 @@ public class NotificationDeliveryService {
         notification.setType(type);
         notification.setPayload(payload);
         notificationRepository.save(notification);
+        notificationRelay.added(List.of(recipient.getId()));
     }
 
+    /** In-app notification is always saved; the SMS is queued in the same transaction. */
     @Transactional
-    public void notifyInAppAndSms(AppUser recipient,
-                                  NotificationType type,
-                                  String payload,
-                                  String smsMessage) {
+    public SmsOutcome notifyInAppAndSms(AppUser recipient,
+                                        NotificationType type,
+                                        String payload,
+                                        String smsMessage) {
         if (recipient == null) {
-            return;
+            return SmsOutcome.SKIPPED;
         }
 
         notifyInApp(recipient, type, payload);
-        smsService.send(recipient.getPhoneNumber(), smsMessage);
+
+        String phone = recipient.getPhoneNumber();
+        if (phone == null || phone.isBlank()) {
+            return SmsOutcome.SKIPPED;
+        }
+        queueSms(List.of(recipient.getId()), List.of(phone), smsMessage, null);
+        return SmsOutcome.QUEUED;
+    }
+
+    /**
+     * Same notification for many users: all in-app rows in one insert and all texts queued
+     * in one insert. Null and disabled recipients are skipped; users without a phone get the
+     * in-app row only. publishJobId (nullable) lets the dispatcher count the texts on that job.
+     */
+    @Transactional
+    public BulkResult notifyAllInAppAndSms(Collection<AppUser> recipients,
+                                           NotificationType type,
+                                           String payload,
+                                           String smsMessage,
+                                           Long publishJobId) {
+        List<Long> ids = new ArrayList<>(recipients.size());
+        List<Long> smsIds = new ArrayList<>();
+        List<String> smsPhones = new ArrayList<>();
+        Set<String> seenPhones = new HashSet<>(); // a shared phone gets the text once
+        for (AppUser user : recipients) {
+            if (user == null || !user.isEnabled()) continue;
+            ids.add(user.getId());
+            String phone = user.getPhoneNumber();
+            if (phone != null && !phone.isBlank() && seenPhones.add(phone)) {
+                smsIds.add(user.getId());
+                smsPhones.add(phone);
+            }
+        }
+        if (ids.isEmpty()) {
+            return new BulkResult(0, 0, 0);
+        }
+
+        int inserted = jdbc.update(con -> {
+            PreparedStatement ps = con.prepareStatement(BULK_INSERT);
+            ps.setString(1, type.name());
+            ps.setString(2, payload);
+            ps.setArray(3, con.createArrayOf("bigint", ids.toArray()));
+            return ps;
+        });
+        notificationRelay.added(ids); // badges update (and streams push) once committed
+
+        List<Long> owners = smsIds.isEmpty() ? List.of() : queueSms(smsIds, smsPhones, smsMessage, publishJobId);
+        int onJob = publishJobId == null ? 0 : (int) owners.stream().filter(publishJobId::equals).count();
+        return new BulkResult(inserted, owners.size(), onJob);
+    }
+
+    /** One outbox statement for all phones (distinct); returns the owning job of each row inserted or merged into. */
+    private List<Long> queueSms(List<Long> recipientIds, List<String> phones, String smsMessage, Long publishJobId) {
+        List<Long> owners = jdbc.query(con -> {
+            PreparedStatement ps = con.prepareStatement(OUTBOX_INSERT);
+            ps.setString(1, smsMessage);
+            ps.setObject(2, publishJobId, Types.BIGINT);
+            ps.setLong(3, coalesceWindowMs);
+            ps.setBoolean(4, coalesceWindowMs > 0);
+            ps.setString(5, smsOutboxDispatcher.nodeId());
+            ps.setArray(6, con.createArrayOf("bigint", recipientIds.toArray()));
+            ps.setArray(7, con.createArrayOf("varchar", phones.toArray()));
+            return ps;
+        }, (rs, i) -> (Long) rs.getObject("publish_job_id"));
+        wakeDispatcherAfterCommit();
+        return owners;
+    }
+
+    // Start sending as soon as the rows are visible; the dispatcher's poll is the fallback
+    private void wakeDispatcherAfterCommit() {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            smsOutboxDispatcher.wake();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                smsOutboxDispatcher.wake();
+            }
+        });
     }
 }
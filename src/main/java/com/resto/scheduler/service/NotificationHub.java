@@ -0,0 +1,121 @@
+package com.resto.scheduler.service;
+
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Server-sent event streams of this node's logged-in users (one per open tab), keyed by user id.
+ * push() sends each listed user their current unread count as an "unread" event. Streams are
+ * async requests, so an idle connection holds no Tomcat worker; sends happen on one "sse-push"
+ * thread so a slow client never stalls a committing transaction or the relay listener.
+ */
+@Component
+public class NotificationHub {
+
+    // Older tabs are closed beyond this; EventSource in a closed tab stops reconnecting anyway
+    private static final int MAX_STREAMS_PER_USER = 5;
+
+    private final UnreadCountCache unreadCountCache;
+    private final long timeoutMs;
+    private final Map<Long, List<SseEmitter>> streams = new ConcurrentHashMap<>();
+    private final ExecutorService pushes = Executors.newSingleThreadExecutor(r -> {
+        Thread t = new Thread(r, "sse-push");
+        t.setDaemon(true);
+        return t;
+    });
+
+    public NotificationHub(UnreadCountCache unreadCountCache,
+                           @Value("${app.notifications.sse-timeout-ms:1800000}") long timeoutMs) {
+        this.unreadCountCache = unreadCountCache;
+        this.timeoutMs = timeoutMs;
+    }
+
+    /** A new stream for this user, starting with their current count; the browser reconnects on timeout. */
+    public SseEmitter subscribe(Long userId) {
+        SseEmitter emitter = new SseEmitter(timeoutMs);
+        List<SseEmitter> evicted = new ArrayList<>();
+        streams.compute(userId, (id, mine) -> {
+            if (mine == null) mine = new CopyOnWriteArrayList<>();
+            mine.add(emitter);
+            while (mine.size() > MAX_STREAMS_PER_USER) {
+                evicted.add(mine.remove(0));
+            }
+            return mine;
+        });
+        evicted.forEach(SseEmitter::complete);
+
+        emitter.onCompletion(() -> remove(userId, emitter));
+        emitter.onTimeout(() -> remove(userId, emitter));
+        emitter.onError(ex -> remove(userId, emitter));
+
+        push(List.of(userId));
+        return emitter;
+    }
+
+    /** Send the current unread count to every open stream of these users (others are skipped). */
+    public void push(Collection<Long> userIds) {
+        List<Long> connected = userIds.stream().filter(streams::containsKey).toList();
+        if (connected.isEmpty()) {
+            return;
+        }
+        pushes.execute(() -> connected.forEach(this::sendCount));
+    }
+
+    // Comment lines keep proxies from closing idle streams and surface dead clients
+    @Scheduled(fixedDelayString = "${app.notifications.sse-heartbeat-ms:25000}")
+    public void heartbeat() {
+        pushes.execute(() -> streams.forEach((userId, mine) -> {
+            for (SseEmitter emitter : mine) {
+                send(userId, emitter, SseEmitter.event().comment("keepalive"));
+            }
+        }));
+    }
+
+    private void sendCount(Long userId) {
+        List<SseEmitter> mine = streams.get(userId);
+        if (mine == null) {
+            return;
+        }
+        long count = unreadCountCache.get(userId);
+        for (SseEmitter emitter : mine) {
+            send(userId, emitter, SseEmitter.event().name("unread").data(count));
+        }
+    }
+
+    private void send(Long userId, SseEmitter emitter, SseEmitter.SseEventBuilder event) {
+        try {
+            emitter.send(event);
+        } catch (IOException | IllegalStateException ex) {
+            // Client went away (or the emitter already completed); drop it
+            remove(userId, emitter);
+            emitter.completeWithError(ex);
+        }
+    }
+
+    private void remove(Long userId, SseEmitter emitter) {
+        streams.computeIfPresent(userId, (id, mine) -> {
+            mine.remove(emitter);
+            return mine.isEmpty() ? null : mine;
+        });
+    }
+
+    @PreDestroy
+    void shutdown() {
+        pushes.shutdownNow();
+        streams.values().forEach(mine -> mine.forEach(SseEmitter::complete));
+        streams.clear();
+    }
+}
@@ -0,0 +1,182 @@
+package com.resto.scheduler.service;
+
+import jakarta.annotation.PreDestroy;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+/**
+ * Tells every app node that notifications were added or read, so each can update its unread
+ * cache and push to the streams its own users hold (NotificationHub).
+ * This node applies the change after the caller's transaction commits. Other nodes hear it via
+ * pg_notify on CHANNEL, which Postgres also delivers only on commit; one "notification-relay"
+ * thread per node keeps its own connection (opened with DriverManager, outside the Hikari pool,
+ * so it never takes a pool slot) in LISTEN for them.
+ * With app.notifications.relay.enabled=false (single node) nothing goes through Postgres.
+ */
+@Component
+public class NotificationRelay {
+
+    private static final Logger log = LoggerFactory.getLogger(NotificationRelay.class);
+
+    static final String CHANNEL = "notification_events";
+
+    // NOTIFY payloads must stay under 8000 bytes; 300 ids is well inside that
+    private static final int IDS_PER_MESSAGE = 300;
+    private static final int POLL_MS = 10_000;
+    private static final long RECONNECT_MS = 5_000;
+
+    private enum Kind { ADDED, READ }
+
+    private final JdbcTemplate jdbc;
+    private final String url;
+    private final String username;
+    private final String password;
+    private final UnreadCountCache unreadCountCache;
+    private final NotificationHub hub;
+    private final boolean enabled;
+
+    // Lets a node skip its own messages, which it has already applied
+    private final String nodeId = UUID.randomUUID().toString().substring(0, 8);
+
+    private volatile boolean running;
+    private Thread listener;
+
+    public NotificationRelay(JdbcTemplate jdbc,
+                             UnreadCountCache unreadCountCache,
+                             NotificationHub hub,
+                             @Value("${app.notifications.relay.enabled:true}") boolean enabled,
+                             @Value("${spring.datasource.url}") String url,
+                             @Value("${spring.datasource.username}") String username,
+                             @Value("${spring.datasource.password}") String password) {
+        this.jdbc = jdbc;
+        this.url = url;
+        this.username = username;
+        this.password = password;
+        this.unreadCountCache = unreadCountCache;
+        this.hub = hub;
+        this.enabled = enabled;
+    }
+
+    /** One new unread notification per listed user, written in the current transaction (if any). */
+    public void added(Collection<Long> userIds) {
+        publish(Kind.ADDED, List.copyOf(userIds));
+    }
+
+    /** The user read one of their notifications. */
+    public void read(Long userId) {
+        publish(Kind.READ, List.of(userId));
+    }
+
+    private void publish(Kind kind, List<Long> userIds) {
+        if (userIds.isEmpty()) {
+            return;
+        }
+        if (enabled) {
+            for (int i = 0; i < userIds.size(); i += IDS_PER_MESSAGE) {
+                List<Long> chunk = userIds.subList(i, Math.min(userIds.size(), i + IDS_PER_MESSAGE));
+                String payload = nodeId + "|" + kind + "|"
+                        + chunk.stream().map(String::valueOf).collect(Collectors.joining(","));
+                jdbc.query("select pg_notify(?, ?)", rs -> {}, CHANNEL, payload);
+            }
+        }
+
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            apply(kind, userIds);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                apply(kind, userIds);
+            }
+        });
+    }
+
+    private void apply(Kind kind, List<Long> userIds) {
+        if (kind == Kind.ADDED) {
+            unreadCountCache.added(userIds);
+        } else {
+            userIds.forEach(unreadCountCache::markedRead);
+        }
+        hub.push(userIds);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (!enabled) {
+            return;
+        }
+        running = true;
+        listener = new Thread(this::listen, "notification-relay");
+        listener.setDaemon(true);
+        listener.start();
+    }
+
+    private void listen() {
+        while (running) {
+            try (Connection con = DriverManager.getConnection(url, username, password)) {
+                PGConnection pg = con.unwrap(PGConnection.class);
+                try (Statement st = con.createStatement()) {
+                    st.execute("LISTEN " + CHANNEL);
+                }
+                log.info("Notification relay listening on {} (node {})", CHANNEL, nodeId);
+                while (running) {
+                    PGNotification[] batch = pg.getNotifications(POLL_MS);
+                    if (batch == null) continue;
+                    for (PGNotification n : batch) {
+                        receive(n.getParameter());
+                    }
+                }
+            } catch (SQLException ex) {
+                if (!running) return;
+                // Events sent while disconnected are lost; the cache's TTL re-reads the counts
+                log.warn("Notification relay lost its connection, retrying in {} ms: {}", RECONNECT_MS, ex.getMessage());
+                try {
+                    Thread.sleep(RECONNECT_MS);
+                } catch (InterruptedException ie) {
+                    return;
+                }
+            }
+        }
+    }
+
+    private void receive(String payload) {
+        String[] parts = payload.split("\\|", 3);
+        if (parts.length != 3 || nodeId.equals(parts[0])) {
+            return;
+        }
+        try {
+            Kind kind = Kind.valueOf(parts[1]);
+            apply(kind, Arrays.stream(parts[2].split(",")).map(Long::valueOf).toList());
+        } catch (RuntimeException ex) {
+            log.warn("Ignoring malformed notification event '{}': {}", payload, ex.getMessage());
+        }
+    }
+
+    @PreDestroy
+    void stop() {
+        running = false;
+        if (listener != null) {
+            listener.interrupt();
+        }
+    }
+}
@@ -0,0 +1,162 @@
+package com.resto.scheduler.service;
+
+import com.resto.scheduler.model.SchedulePeriod;
+import com.resto.scheduler.repository.SchedulePeriodRepository;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * All POSTED schedule periods, held in memory as intervals sorted by start date.
+ * Answers "is this date locked", overlap and prev/next lookups without a query.
+ *
+ * Loaded lazily in one query; invalidated when a period is posted, and re-read
+ * periodically so other app instances pick up each other's posts.
+ * Each snapshot records the generation it was loaded under; invalidate() bumps the generation,
+ * so a load that was already running when a period was posted is never served afterwards.
+ */
+@Component
+public class PostedPeriodIndex {
+
+    /** Lightweight view of a POSTED period. */
+    public record Posted(long id, LocalDate startDate, LocalDate endDate) {}
+
+    // Immutable snapshot: parallel arrays sorted by start; maxEnd[i] = max end over [0..i]
+    private record Snapshot(Posted[] periods, long[] starts, long[] maxEnd, long generation) {}
+
+    private final SchedulePeriodRepository periodRepo;
+    private final AtomicLong generation = new AtomicLong();
+    private volatile Snapshot snapshot; // null = not loaded
+
+    public PostedPeriodIndex(SchedulePeriodRepository periodRepo) {
+        this.periodRepo = periodRepo;
+    }
+
+    /** Latest-starting POSTED period that contains the date. */
+    public Optional<Posted> containing(LocalDate date) {
+        Snapshot s = snapshot();
+        long d = date.toEpochDay();
+        for (int i = lastStartingOnOrBefore(s, d); i >= 0 && s.maxEnd()[i] >= d; i--) {
+            if (s.periods()[i].endDate().toEpochDay() >= d) {
+                return Optional.of(s.periods()[i]);
+            }
+        }
+        return Optional.empty();
+    }
+
+    public boolean isLocked(LocalDate date) {
+        return containing(date).isPresent();
+    }
+
+    /** POSTED periods overlapping [start, end], ordered by start date. */
+    public List<Posted> overlapping(LocalDate start, LocalDate end) {
+        Snapshot s = snapshot();
+        long a = start.toEpochDay();
+        List<Posted> out = new ArrayList<>();
+        for (int i = lastStartingOnOrBefore(s, end.toEpochDay()); i >= 0 && s.maxEnd()[i] >= a; i--) {
+            if (s.periods()[i].endDate().toEpochDay() >= a) {
+                out.add(0, s.periods()[i]);
+            }
+        }
+        return out;
+    }
+
+    public Optional<Posted> latest() {
+        Posted[] periods = snapshot().periods();
+        return periods.length == 0 ? Optional.empty() : Optional.of(periods[periods.length - 1]);
+    }
+
+    /** Start of the closest POSTED period starting strictly before the given start. */
+    public Optional<LocalDate> previousStart(LocalDate start) {
+        Snapshot s = snapshot();
+        int i = lastStartingOnOrBefore(s, start.toEpochDay() - 1);
+        return i >= 0 ? Optional.of(s.periods()[i].startDate()) : Optional.empty();
+    }
+
+    /** Start of the closest POSTED period starting strictly after the given start. */
+    public Optional<LocalDate> nextStart(LocalDate start) {
+        Snapshot s = snapshot();
+        int i = lastStartingOnOrBefore(s, start.toEpochDay()) + 1;
+        return i < s.periods().length ? Optional.of(s.periods()[i].startDate()) : Optional.empty();
+    }
+
+    public boolean isPostedStart(LocalDate start) {
+        Snapshot s = snapshot();
+        int i = lastStartingOnOrBefore(s, start.toEpochDay());
+        return i >= 0 && s.starts()[i] == start.toEpochDay();
+    }
+
+    /** Drop the snapshot; the next lookup reloads. Call after posting or changing a period. */
+    public void invalidate() {
+        generation.incrementAndGet();
+        snapshot = null;
+    }
+
+    @Scheduled(fixedDelayString = "${app.posted-period-index.refresh-ms:60000}")
+    public void refresh() {
+        if (snapshot == null) {
+            return;
+        }
+        long gen = generation.get();
+        Snapshot loaded = load(gen);
+        synchronized (this) {
+            // Posted meanwhile: keep whatever the post left (null or a newer load)
+            if (generation.get() == gen) {
+                snapshot = loaded;
+            }
+        }
+    }
+
+    private Snapshot snapshot() {
+        Snapshot current = snapshot;
+        if (current != null && current.generation() == generation.get()) {
+            return current;
+        }
+        synchronized (this) {
+            current = snapshot;
+            long gen = generation.get();
+            if (current == null || current.generation() != gen) {
+                current = load(gen);
+                snapshot = current;
+            }
+            return current;
+        }
+    }
+
+    private Snapshot load(long gen) {
+        List<SchedulePeriod> rows = periodRepo.findAllPostedOrderByStartDate();
+        Posted[] periods = new Posted[rows.size()];
+        long[] starts = new long[rows.size()];
+        long[] maxEnd = new long[rows.size()];
+        long runningMax = Long.MIN_VALUE;
+        for (int i = 0; i < rows.size(); i++) {
+            SchedulePeriod p = rows.get(i);
+            periods[i] = new Posted(p.getId(), p.getStartDate(), p.getEndDate());
+            starts[i] = p.getStartDate().toEpochDay();
+            runningMax = Math.max(runningMax, p.getEndDate().toEpochDay());
+            maxEnd[i] = runningMax;
+        }
+        return new Snapshot(periods, starts, maxEnd, gen);
+    }
+
+    /** Index of the last period whose start <= day, or -1. */
+    private static int lastStartingOnOrBefore(Snapshot s, long day) {
+        long[] starts = s.starts();
+        int lo = 0, hi = starts.length - 1, found = -1;
+        while (lo <= hi) {
+            int mid = (lo + hi) >>> 1;
+            if (starts[mid] <= day) {
+                found = mid;
+                lo = mid + 1;
+            } else {
+                hi = mid - 1;
+            }
+        }
+        return found;
+    }
+}
@@ -0,0 +1,225 @@
+package com.resto.scheduler.service;
+
+import com.resto.scheduler.model.PublishJob;
+import com.resto.scheduler.repository.PublishJobRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Array;
+import java.sql.PreparedStatement;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Background publish pipeline.
+ * The publish POST only enqueues a publish_job row; the scheduled worker claims jobs
+ * (FOR UPDATE SKIP LOCKED, so several app instances can run it), takes the snapshot in
+ * its own transaction, then fans out notifications while recording progress on the row.
+ * Each step commits together with its marker on the job row (snapshot_at, notified_at), so a
+ * job reclaimed after a crash skips the steps already done and notifies from the saved result.
+ */
+@Service
+public class PublishJobService {
+
+    private static final Logger log = LoggerFactory.getLogger(PublishJobService.class);
+
+    // One queued job per period is enough: a later POST is folded into the one already waiting
+    private static final String ENQUEUE = """
+            insert into publish_job (schedule_period_id, kind, status, requested_by_user_id)
+            select ?, ?, 'QUEUED', ?
+            where not exists (select 1 from publish_job where schedule_period_id = ? and status = 'QUEUED')
+            """;
+
+    // Queued jobs, plus RUNNING ones whose worker died mid-way (no progress for 15 minutes)
+    private static final String CLAIM = """
+            update publish_job
+            set status = 'RUNNING', started_at = now(), attempts = attempts + 1
+            where id = (
+                select id from publish_job
+                where status = 'QUEUED'
+                   or (status = 'RUNNING' and coalesce(heartbeat_at, started_at) < now() - interval '15 minutes')
+                order by id
+                limit 1
+                for update skip locked
+            )
+            returning id, schedule_period_id
+            """;
+
+    private static final String SAVE_SNAPSHOT = """
+            update publish_job
+            set snapshot_at = now(), rows_written = ?, first_publish = ?, affected_user_ids = ?
+            where id = ?
+            """;
+
+    // What an earlier attempt of this job already committed
+    private record Saved(PublishService.SnapshotResult snapshot, boolean notified,
+                         int recipients, int notificationsSent, int smsQueued) {}
+
+    private final PublishService publishService;
+    private final PublishJobRepository jobRepo;
+    private final JdbcTemplate jdbc;
+    private final TransactionTemplate tx;
+
+    public PublishJobService(PublishService publishService,
+                             PublishJobRepository jobRepo,
+                             JdbcTemplate jdbc,
+                             TransactionTemplate tx) {
+        this.publishService = publishService;
+        this.jobRepo = jobRepo;
+        this.jdbc = jdbc;
+        this.tx = tx;
+    }
+
+    /** Queue a publish for the period; returns at once. */
+    public void enqueue(Long schedulePeriodId, String kind, Long requestedByUserId) {
+        int inserted = jdbc.update(ENQUEUE, schedulePeriodId, kind, requestedByUserId, schedulePeriodId);
+        if (inserted == 0) {
+            log.info("Publish job for period {} already queued", schedulePeriodId);
+        }
+    }
+
+    public Optional<PublishJob> latestForPeriod(Long schedulePeriodId) {
+        return jobRepo.findTopBySchedulePeriodIdOrderByIdDesc(schedulePeriodId);
+    }
+
+    @Scheduled(fixedDelayString = "${app.publish.worker-delay-ms:2000}")
+    public void drain() {
+        long[] job;
+        while ((job = claimNext()) != null) {
+            run(job[0], job[1]);
+        }
+    }
+
+    private long[] claimNext() {
+        List<long[]> claimed = jdbc.query(CLAIM, (rs, i) -> new long[]{rs.getLong("id"), rs.getLong("schedule_period_id")});
+        return claimed.isEmpty() ? null : claimed.get(0);
+    }
+
+    private void run(long jobId, long periodId) {
+        long t0 = System.nanoTime();
+        JobProgress progress = new JobProgress(jobId);
+        try {
+            Saved saved = loadSaved(jobId);
+            PublishService.SnapshotResult result;
+            if (saved.snapshot() != null) {
+                result = saved.snapshot();
+                log.info("Publish job {} (period {}) resuming from its saved snapshot", jobId, periodId);
+            } else {
+                result = tx.execute(status -> {
+                    PublishService.SnapshotResult r = publishService.snapshotPeriod(periodId);
+                    saveSnapshot(jobId, r);
+                    return r;
+                });
+            }
+
+            if (saved.notified()) {
+                progress.restore(saved.recipients(), saved.notificationsSent(), saved.smsQueued());
+            } else {
+                tx.executeWithoutResult(status -> {
+                    publishService.notifyPublished(periodId, result, progress);
+                    jdbc.update("update publish_job set notified_at = now() where id = ?", jobId);
+                });
+            }
+            progress.flush();
+
+            jdbc.update("update publish_job set status = 'DONE', finished_at = now(), error = null where id = ?", jobId);
+            log.info("Publish job {} (period {}) done: rows={}, notified={}, took={}ms",
+                    jobId, periodId, result.rowsWritten(), progress.notifications.get(),
+                    (System.nanoTime() - t0) / 1_000_000);
+        } catch (RuntimeException ex) {
+            progress.flush();
+            String message = ex.getMessage() != null ? ex.getMessage() : ex.getClass().getSimpleName();
+            jdbc.update("update publish_job set status = 'FAILED', finished_at = now(), error = ? where id = ?",
+                    message.length() > 1000 ? message.substring(0, 1000) : message, jobId);
+            log.error("Publish job {} (period {}) failed", jobId, periodId, ex);
+        }
+    }
+
+    private Saved loadSaved(long jobId) {
+        return jdbc.queryForObject("""
+                select snapshot_at is not null as snapshot_taken, notified_at is not null as notified,
+                       rows_written, first_publish, affected_user_ids, recipients, notifications_sent, sms_queued
+                from publish_job where id = ?
+                """, (rs, i) -> {
+            PublishService.SnapshotResult snapshot = null;
+            if (rs.getBoolean("snapshot_taken")) {
+                Array ids = rs.getArray("affected_user_ids");
+                Set<Long> affected = ids == null ? Set.of() : new HashSet<>(Arrays.asList((Long[]) ids.getArray()));
+                snapshot = new PublishService.SnapshotResult(rs.getBoolean("first_publish"), rs.getInt("rows_written"), affected);
+            }
+            return new Saved(snapshot, rs.getBoolean("notified"), rs.getInt("recipients"),
+                    rs.getInt("notifications_sent"), rs.getInt("sms_queued"));
+        }, jobId);
+    }
+
+    private void saveSnapshot(long jobId, PublishService.SnapshotResult result) {
+        jdbc.update(con -> {
+            PreparedStatement ps = con.prepareStatement(SAVE_SNAPSHOT);
+            ps.setInt(1, result.rowsWritten());
+            ps.setBoolean(2, result.firstPublish());
+            ps.setArray(3, con.createArrayOf("bigint", result.affectedUserIds().toArray()));
+            ps.setLong(4, jobId);
+            return ps;
+        });
+    }
+
+    /** Counts in memory and writes them to the job row; SMS counts are added by SmsOutboxDispatcher. */
+    private final class JobProgress implements PublishProgress {
+
+        private final long jobId;
+        private final AtomicInteger recipients = new AtomicInteger();
+        private final AtomicInteger notifications = new AtomicInteger();
+        private final AtomicInteger texts = new AtomicInteger();
+
+        JobProgress(long jobId) {
+            this.jobId = jobId;
+        }
+
+        @Override
+        public Long jobId() {
+            return jobId;
+        }
+
+        // A resumed job whose fan-out already committed keeps the counts it recorded
+        void restore(int recipientCount, int notificationCount, int smsCount) {
+            recipients.set(recipientCount);
+            notifications.set(notificationCount);
+            texts.set(smsCount);
+        }
+
+        @Override
+        public void recipients(int count) {
+            recipients.set(count);
+            flush();
+        }
+
+        @Override
+        public void notificationsSent(int count) {
+            notifications.addAndGet(count);
+            flush();
+        }
+
+        @Override
+        public void smsQueued(int count) {
+            texts.addAndGet(count);
+            flush();
+        }
+
+        // heartbeat_at keeps a long fan-out from being reclaimed as stale
+        void flush() {
+            jdbc.update("""
+                    update publish_job
+                    set recipients = ?, notifications_sent = ?, sms_queued = ?, heartbeat_at = now()
+                    where id = ?
+                    """, recipients.get(), notifications.get(), texts.get(), jobId);
+        }
+    }
+}
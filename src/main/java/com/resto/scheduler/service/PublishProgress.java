@@ -0,0 +1,19 @@
+package com.resto.scheduler.service;
+
+/** Progress callbacks for a publish fan-out; the background job records them on publish_job. */
+public interface PublishProgress {
+
+    PublishProgress NONE = new PublishProgress() {};
+
+    /** The publish job this fan-out belongs to, if any; queued texts are counted against it. */
+    default Long jobId() {
+        return null;
+    }
+
+    default void recipients(int count) {}
+
+    default void notificationsSent(int count) {}
+
+    /** Outbox rows this fan-out's job owns; the dispatcher counts them off as sent or failed. */
+    default void smsQueued(int count) {}
+}
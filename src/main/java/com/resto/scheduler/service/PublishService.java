@@ -1,10 +1,22 @@
 package com.resto.scheduler.service;
 
+import java.util.Set;
+
 public interface PublishService {
-    /** Rebuild the published snapshot for the given POSTED schedule period id. */
-    void snapshotPeriod(Long schedulePeriodId);
 
-    /** Rebuild the snapshot for the latest POSTED period (no-op if none). */
+    /** What a snapshot changed; drives the notification fan-out. */
+    record SnapshotResult(boolean firstPublish, int rowsWritten, Set<Long> affectedUserIds) {
+
+        public static final SnapshotResult SKIPPED = new SnapshotResult(false, 0, Set.of());
+    }
+
+    /** Rebuild the published snapshot for the given POSTED schedule period id (no notifications). */
+    SnapshotResult snapshotPeriod(Long schedulePeriodId);
+
+    /** Send the in-app + SMS notifications for a snapshot (everyone on first publish, else the affected users). */
+    void notifyPublished(Long schedulePeriodId, SnapshotResult result, PublishProgress progress);
+
+    /** Rebuild the snapshot for the latest POSTED period and notify (no-op if none). */
     void snapshotLatestPosted();
 
     boolean needsRepublish(Long schedulePeriodId);
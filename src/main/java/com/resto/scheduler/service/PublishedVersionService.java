@@ -0,0 +1,205 @@
+package com.resto.scheduler.service;
+
+import com.resto.scheduler.model.enums.Position;
+import com.resto.scheduler.model.enums.ShiftPeriod;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Immutable publish history per schedule period (published_version / published_version_slot).
+ * Each publish stores only the slots that changed since the previous version; every
+ * CHECKPOINT_EVERY versions a full copy is stored instead, so rebuilding any version reads
+ * one checkpoint plus fewer than CHECKPOINT_EVERY deltas in a single query.
+ * Slots carry the employee's name as published, so history reads never join app_user and
+ * deleting or renaming a user does not change past versions.
+ */
+@Service
+public class PublishedVersionService {
+
+    private static final int CHECKPOINT_EVERY = 10;
+
+    public record Slot(LocalDate date, ShiftPeriod period, Position position, Long userId, String employeeName) {}
+
+    public record VersionInfo(int version, boolean checkpoint, int changedSlots, Instant publishedAt) {}
+
+    /** One slot that differs between two versions; kind is ADDED, REMOVED or CHANGED. */
+    public record SlotChange(LocalDate date,
+                             ShiftPeriod period,
+                             Position position,
+                             String kind,
+                             Long fromUserId,
+                             String fromName,
+                             Long toUserId,
+                             String toName) {}
+
+    private record SlotKey(LocalDate date, ShiftPeriod period, Position position) {}
+
+    private record Holder(Long userId, String name) {}
+
+    private record Head(int version, int checkpointVersion) {}
+
+    private static final String INSERT_VERSION = """
+            insert into published_version (schedule_period_id, version, checkpoint_version, is_checkpoint, changed_slots)
+            values (?, ?, ?, ?, ?)
+            returning id
+            """;
+
+    private static final String INSERT_SLOT = """
+            insert into published_version_slot (version_id, date, period, position, user_id, employee_name, removed)
+            values (?, ?, ?, ?, ?, ?, ?)
+            """;
+
+    // Latest row per slot across [checkpoint, version]; a removed marker hides the slot
+    private static final String REBUILD = """
+            select date, period, position, user_id, employee_name from (
+                select distinct on (s.date, s.period, s.position)
+                       s.date, s.period, s.position, s.user_id, s.employee_name, s.removed
+                from published_version_slot s
+                join published_version v on v.id = s.version_id
+                where v.schedule_period_id = ? and v.version between ? and ?
+                order by s.date, s.period, s.position, v.version desc
+            ) latest
+            where not removed
+            """;
+
+    private final JdbcTemplate jdbc;
+
+    public PublishedVersionService(JdbcTemplate jdbc) {
+        this.jdbc = jdbc;
+    }
+
+    /**
+     * Record a new version for the period, called from the snapshot transaction
+     * (which already holds the schedule_period row lock, so version numbers cannot race).
+     * live is the full published grid, changed/removed the delta against the previous version.
+     * Returns the new version number, or the current one when nothing changed.
+     */
+    @Transactional
+    public int recordVersion(long schedulePeriodId,
+                             Collection<Slot> live,
+                             Collection<Slot> changed,
+                             Collection<Slot> removed) {
+        Optional<Head> head = head(schedulePeriodId);
+        if (head.isPresent() && changed.isEmpty() && removed.isEmpty()) {
+            return head.get().version();
+        }
+
+        int version = head.map(h -> h.version() + 1).orElse(1);
+        boolean checkpoint = head.isEmpty() || version - head.get().checkpointVersion() >= CHECKPOINT_EVERY;
+        int checkpointVersion = checkpoint ? version : head.get().checkpointVersion();
+
+        Long versionId = jdbc.queryForObject(INSERT_VERSION, Long.class,
+                schedulePeriodId, version, checkpointVersion, checkpoint, changed.size() + removed.size());
+
+        List<Object[]> rows = new ArrayList<>();
+        if (checkpoint) {
+            for (Slot s : live) rows.add(slotRow(versionId, s, false));
+        } else {
+            for (Slot s : changed) rows.add(slotRow(versionId, s, false));
+            for (Slot s : removed) rows.add(slotRow(versionId, s, true));
+        }
+        if (!rows.isEmpty()) jdbc.batchUpdate(INSERT_SLOT, rows);
+        return version;
+    }
+
+    @Transactional(readOnly = true)
+    public List<VersionInfo> versions(long schedulePeriodId) {
+        return jdbc.query("""
+                select version, is_checkpoint, changed_slots, published_at
+                from published_version
+                where schedule_period_id = ?
+                order by version desc
+                """, (rs, i) -> new VersionInfo(
+                rs.getInt("version"),
+                rs.getBoolean("is_checkpoint"),
+                rs.getInt("changed_slots"),
+                rs.getObject("published_at", OffsetDateTime.class).toInstant()
+        ), schedulePeriodId);
+    }
+
+    /** The full grid as it was published in the given version; empty if the version does not exist. */
+    @Transactional(readOnly = true)
+    public List<Slot> slotsAt(long schedulePeriodId, int version) {
+        List<Slot> out = new ArrayList<>();
+        rebuild(schedulePeriodId, version).forEach((k, h) ->
+                out.add(new Slot(k.date(), k.period(), k.position(), h.userId(), h.name())));
+        out.sort(Comparator.comparing(Slot::date).thenComparing(Slot::period).thenComparing(Slot::position));
+        return out;
+    }
+
+    /** Per-slot differences going from version `from` to version `to` (either order). */
+    @Transactional(readOnly = true)
+    public List<SlotChange> diff(long schedulePeriodId, int from, int to) {
+        Map<SlotKey, Holder> before = rebuild(schedulePeriodId, from);
+        Map<SlotKey, Holder> after = rebuild(schedulePeriodId, to);
+
+        Set<SlotKey> keys = new HashSet<>(before.keySet());
+        keys.addAll(after.keySet());
+
+        Holder none = new Holder(null, null);
+        List<SlotChange> out = new ArrayList<>();
+        for (SlotKey k : keys) {
+            boolean had = before.containsKey(k);
+            boolean has = after.containsKey(k);
+            Holder a = before.getOrDefault(k, none);
+            Holder b = after.getOrDefault(k, none);
+            if (had && has && Objects.equals(a.userId(), b.userId())) continue;
+            String kind = !had ? "ADDED" : (!has ? "REMOVED" : "CHANGED");
+            out.add(new SlotChange(k.date(), k.period(), k.position(), kind,
+                    a.userId(), a.name(), b.userId(), b.name()));
+        }
+        out.sort(Comparator.comparing(SlotChange::date)
+                .thenComparing(SlotChange::period)
+                .thenComparing(SlotChange::position));
+        return out;
+    }
+
+    private Optional<Head> head(long schedulePeriodId) {
+        List<Head> rows = jdbc.query("""
+                select version, checkpoint_version from published_version
+                where schedule_period_id = ?
+                order by version desc
+                limit 1
+                """, (rs, i) -> new Head(rs.getInt("version"), rs.getInt("checkpoint_version")), schedulePeriodId);
+        return rows.isEmpty() ? Optional.empty() : Optional.of(rows.get(0));
+    }
+
+    private Map<SlotKey, Holder> rebuild(long schedulePeriodId, int version) {
+        List<Integer> checkpoint = jdbc.queryForList("""
+                select checkpoint_version from published_version
+                where schedule_period_id = ? and version = ?
+                """, Integer.class, schedulePeriodId, version);
+        Map<SlotKey, Holder> grid = new HashMap<>();
+        if (checkpoint.isEmpty()) {
+            return grid;
+        }
+        jdbc.query(REBUILD, rs -> {
+            long userId = rs.getLong("user_id");
+            grid.put(new SlotKey(
+                    rs.getObject("date", LocalDate.class),
+                    ShiftPeriod.valueOf(rs.getString("period")),
+                    Position.valueOf(rs.getString("position"))
+            ), new Holder(rs.wasNull() ? null : userId, rs.getString("employee_name")));
+        }, schedulePeriodId, checkpoint.get(0), version);
+        return grid;
+    }
+
+    private static Object[] slotRow(Long versionId, Slot s, boolean removed) {
+        return new Object[]{versionId, s.date(), s.period().name(), s.position().name(), s.userId(), s.employeeName(), removed};
+    }
+}
@@ -10,12 +10,12 @@ import org.springframework.stereotype.Service;
 import com.resto.scheduler.model.enums.ShiftPeriod;
 import com.resto.scheduler.service.NotificationDeliveryService;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
 
 import java.time.Instant;
 import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
 import java.util.*;
-import java.util.stream.Collectors;
 
 @Service
 public class RequestService {
@@ -26,6 +26,8 @@ public class RequestService {
     private final SchedulePeriodRepository schedulePeriodRepo;
     private final AmendmentRepository amendmentRepo;
     private final AppUserRepository userRepo;
+    private final ApplicationEventPublisher events;
+    private final PostedPeriodIndex postedPeriodIndex;
 
     @Value("${app.public-login-url}")
     private String publicLoginUrl;
@@ -42,13 +44,17 @@ public class RequestService {
                           NotificationDeliveryService notificationDeliveryService,
                           SchedulePeriodRepository schedulePeriodRepo,
                           AmendmentRepository amendmentRepo,
-                          AppUserRepository userRepo) {
+                          AppUserRepository userRepo,
+                          ApplicationEventPublisher events,
+                          PostedPeriodIndex postedPeriodIndex) {
         this.requestRepo = requestRepo;
         this.assignmentRepo = assignmentRepo;
         this.notificationDeliveryService = notificationDeliveryService;
         this.schedulePeriodRepo = schedulePeriodRepo;
         this.amendmentRepo = amendmentRepo;
         this.userRepo = userRepo;
+        this.events = events;
+        this.postedPeriodIndex = postedPeriodIndex;
     }
 
     /**
@@ -225,6 +231,7 @@ public class RequestService {
             applyTradeEffect(request);
         } else if (request.getType() == RequestType.TIME_OFF) {
             // No schedule mutation; badge will display on day page and builder.
+            events.publishEvent(new TimeOffChangedEvent(request.getRequestDate()));
         }
 
         // Notifications
@@ -256,6 +263,9 @@ public class RequestService {
         request.setDecidedAt(Instant.now());
         request.setNote(note);
         Request saved = requestRepo.save(request);
+        if (request.getType() == RequestType.TIME_OFF) {
+            events.publishEvent(new TimeOffChangedEvent(request.getRequestDate())); // may have been approved before
+        }
 
         String payload = label(request) + " denied" + (note != null && !note.isBlank() ? (": " + note) : "");
         String smsMessage = buildDecisionSmsMessage(request, false, note);
@@ -309,9 +319,14 @@ public class RequestService {
         // 1) Reassign the live assignment to the receiver
         offer.setEmployee(r.getReceiver());
         assignmentRepo.save(offer);
+        events.publishEvent(shift.getPosition() == null
+                ? AssignmentsChangedEvent.of(date)
+                : AssignmentsChangedEvent.slots(date, List.of(
+                        new AssignmentsChangedEvent.SlotChange(date, shift.getPosition(), r.getReceiver().getId()))));
 
         // 2) If this date belongs to a POSTED period, upsert the amendment
-        schedulePeriodRepo.findPostedContaining(date).ifPresent(period -> {
+        postedPeriodIndex.containing(date).ifPresent(posted -> {
+            SchedulePeriod period = schedulePeriodRepo.getReferenceById(posted.id());
             Amendment amendment = amendmentRepo
                     .findBySchedulePeriod_IdAndDateAndPeriodAndPosition(
                             period.getId(),
@@ -375,28 +390,37 @@ public class RequestService {
         return all;
     }
 
+    /**
+     * Approved TIME_OFF in [start, end], indexed by date, in one query.
+     * Membership checks go by user id (not full name).
+     */
+    public TimeOffIndex getApprovedTimeOffIndex(LocalDate start, LocalDate end) {
+        var rows = requestRepo.findRequestersByTypeAndStatusAndDateBetween(
+                RequestType.TIME_OFF, RequestStatus.APPROVED, start, end);
+
+        Map<LocalDate, Set<Long>> ids = new HashMap<>();
+        Map<LocalDate, List<String>> names = new HashMap<>();
+        for (var row : rows) {
+            if (ids.computeIfAbsent(row.getRequestDate(), d -> new HashSet<>()).add(row.getUserId())) {
+                names.computeIfAbsent(row.getRequestDate(), d -> new ArrayList<>()).add(row.getFullName());
+            }
+        }
+        return new TimeOffIndex(ids, names);
+    }
+
     /**
      * Helper for badges on the schedule-builder grid/day page.
      * Map<date, List<employee full name>>
      */
     public Map<LocalDate, List<String>> getApprovedTimeOffByDate(LocalDate start, LocalDate end) {
-        List<Request> approved = requestRepo.findByTypeAndStatusAndRequestDateBetween(
-                RequestType.TIME_OFF, RequestStatus.APPROVED, start, end);
-        return approved.stream().collect(Collectors.groupingBy(
-                Request::getRequestDate,
-                Collectors.mapping(r -> r.getRequester().getFullName(), Collectors.toList())
-        ));
+        return getApprovedTimeOffIndex(start, end).namesByDate();
     }
 
     /**
-     * Used by day page to hide people who have approved time off that day.
+     * Single-user check; pages that test many users should use getApprovedTimeOffIndex instead.
      */
     public boolean hasApprovedTimeOff(AppUser user, LocalDate date) {
-        Map<LocalDate, List<String>> map = getApprovedTimeOffByDate(date, date);
-        List<String> names = map.get(date);
-        if (names == null) return false;
-        String full = user.getFullName();
-        return names.stream().anyMatch(n -> n.equals(full));
+        return getApprovedTimeOffIndex(date, date).isOff(user.getId(), date);
     }
 
     private String buildDecisionSmsMessage(Request request, boolean approved, String note) {
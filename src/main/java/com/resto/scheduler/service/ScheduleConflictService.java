@@ -0,0 +1,106 @@
+package com.resto.scheduler.service;
+
+import com.resto.scheduler.model.enums.Position;
+import com.resto.scheduler.model.enums.ShiftPeriod;
+import com.resto.scheduler.repository.AppUserRepository;
+import com.resto.scheduler.repository.AssignmentRepository;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.util.*;
+
+/**
+ * Finds rule violations in the live assignments of a date range.
+ * Inputs are loaded once (one projection query for assignments, one for manager ids,
+ * one for time off; availability comes from the in-memory index), then every rule is
+ * checked in a single pass over the rows.
+ */
+@Service
+public class ScheduleConflictService {
+
+    public enum Kind {
+        TIME_OFF("Approved time off"),
+        OUTSIDE_AVAILABILITY("Outside approved availability"),
+        NOT_MANAGER("Lunch Manager is not a manager"),
+        DOUBLE_BOOKED("Double-booked in the same shift");
+
+        private final String label;
+
+        Kind(String label) {
+            this.label = label;
+        }
+
+        public String label() {
+            return label;
+        }
+    }
+
+    public record Conflict(LocalDate date, ShiftPeriod period, Position position, String employeeName, Kind kind) {
+
+        public String roleLabel() {
+            ScheduleRoles.RoleOption ro = ScheduleRoles.bySlot(period, position);
+            return ro != null ? ro.label() : position.name();
+        }
+    }
+
+    private final AssignmentRepository assignmentRepo;
+    private final AppUserRepository userRepo;
+    private final AvailabilityService availabilityService;
+    private final RequestService requestService;
+
+    public ScheduleConflictService(AssignmentRepository assignmentRepo,
+                                   AppUserRepository userRepo,
+                                   AvailabilityService availabilityService,
+                                   RequestService requestService) {
+        this.assignmentRepo = assignmentRepo;
+        this.userRepo = userRepo;
+        this.availabilityService = availabilityService;
+        this.requestService = requestService;
+    }
+
+    @Transactional(readOnly = true)
+    public List<Conflict> analyze(LocalDate start, LocalDate end) {
+        var rows = assignmentRepo.findAssignedSlotsByDateBetween(start, end);
+        if (rows.isEmpty()) {
+            return List.of();
+        }
+        Set<Long> managerIds = userRepo.findIdsByRoleName("MANAGER");
+        TimeOffIndex timeOff = requestService.getApprovedTimeOffIndex(start, end);
+
+        List<Conflict> out = new ArrayList<>();
+        // (user, date, period) -> first slot seen; rows arrive ordered by date/period/position
+        Map<String, Boolean> seen = new HashMap<>();
+
+        for (var row : rows) {
+            Long userId = row.getUserId();
+            LocalDate date = row.getDate();
+            ShiftPeriod period = row.getPeriod();
+            Position position = row.getPosition();
+            String name = row.getFullName();
+
+            if (timeOff.isOff(userId, date)) {
+                out.add(new Conflict(date, period, position, name, Kind.TIME_OFF));
+            }
+            if (!availabilityService.isAvailable(userId, date.getDayOfWeek(), period)) {
+                out.add(new Conflict(date, period, position, name, Kind.OUTSIDE_AVAILABILITY));
+            }
+            if (position == Position.LUNCH_MANAGER && !managerIds.contains(userId)) {
+                out.add(new Conflict(date, period, position, name, Kind.NOT_MANAGER));
+            }
+            if (seen.putIfAbsent(userId + "|" + date + "|" + period, Boolean.TRUE) != null) {
+                out.add(new Conflict(date, period, position, name, Kind.DOUBLE_BOOKED));
+            }
+        }
+        return out;
+    }
+
+    /** Conflict counts per date, for badges. */
+    public static Map<LocalDate, Integer> countByDate(List<Conflict> conflicts) {
+        Map<LocalDate, Integer> out = new HashMap<>();
+        for (Conflict c : conflicts) {
+            out.merge(c.date(), 1, Integer::sum);
+        }
+        return out;
+    }
+}
@@ -0,0 +1,70 @@
+package com.resto.scheduler.service;
+
+import com.resto.scheduler.model.enums.Position;
+import com.resto.scheduler.model.enums.ShiftPeriod;
+import com.resto.scheduler.repository.AmendmentRepository;
+import com.resto.scheduler.repository.AssignmentRepository;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.util.*;
+
+/**
+ * Filled/required slot counts for the schedule builder grid.
+ * One GROUP BY over shift/assignment plus a distinct-date projection for amendments.
+ */
+@Service
+public class ScheduleCoverageService {
+
+    public record DayCoverage(int lunchFilled, int lunchRequired, int dinnerFilled, int dinnerRequired) {
+        public boolean isClosed() { return lunchRequired == 0 && dinnerRequired == 0; }
+        public boolean lunchShort() { return lunchFilled < lunchRequired; }
+        public boolean dinnerShort() { return dinnerFilled < dinnerRequired; }
+        public boolean hasGaps() { return lunchShort() || dinnerShort(); }
+    }
+
+    private static final List<Position> STAFFED_POSITIONS;
+    private static final int LUNCH_REQUIRED = ScheduleRoles.staffed(ShiftPeriod.LUNCH).size();
+    private static final int DINNER_REQUIRED = ScheduleRoles.staffed(ShiftPeriod.DINNER).size();
+
+    static {
+        List<Position> positions = new ArrayList<>();
+        for (ShiftPeriod p : ShiftPeriod.values()) {
+            ScheduleRoles.staffed(p).forEach(ro -> positions.add(ro.position()));
+        }
+        STAFFED_POSITIONS = List.copyOf(positions);
+    }
+
+    private final AssignmentRepository assignmentRepo;
+    private final AmendmentRepository amendmentRepo;
+
+    public ScheduleCoverageService(AssignmentRepository assignmentRepo,
+                                   AmendmentRepository amendmentRepo) {
+        this.assignmentRepo = assignmentRepo;
+        this.amendmentRepo = amendmentRepo;
+    }
+
+    /** Coverage for every date in [start, end] (closed days report 0 required). */
+    public Map<LocalDate, DayCoverage> coverage(LocalDate start, LocalDate end) {
+        Map<LocalDate, int[]> filled = new HashMap<>();
+        for (var row : assignmentRepo.countFilledByDateAndPeriod(start, end, STAFFED_POSITIONS)) {
+            int[] counts = filled.computeIfAbsent(row.getDate(), d -> new int[ShiftPeriod.values().length]);
+            counts[row.getPeriod().ordinal()] = row.getFilled().intValue();
+        }
+
+        Map<LocalDate, DayCoverage> out = new LinkedHashMap<>();
+        for (LocalDate d = start; !d.isAfter(end); d = d.plusDays(1)) {
+            int[] counts = filled.getOrDefault(d, new int[ShiftPeriod.values().length]);
+            boolean open = ScheduleRoles.isOpen(d.getDayOfWeek());
+            out.put(d, new DayCoverage(
+                    counts[ShiftPeriod.LUNCH.ordinal()], open ? LUNCH_REQUIRED : 0,
+                    counts[ShiftPeriod.DINNER.ordinal()], open ? DINNER_REQUIRED : 0));
+        }
+        return out;
+    }
+
+    /** Dates in [start, end] with at least one amendment. */
+    public Set<LocalDate> amendedDates(LocalDate start, LocalDate end) {
+        return new HashSet<>(amendmentRepo.findDistinctDatesBetween(start, end));
+    }
+}
@@ -0,0 +1,88 @@
+package com.resto.scheduler.service;
+
+import com.resto.scheduler.model.enums.Position;
+import com.resto.scheduler.model.enums.ShiftPeriod;
+
+import java.time.DayOfWeek;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Single registry of the 13 day-page roles: form key ("role_*"), label, period and position.
+ * Shared by the day page, saveDay and anything else that maps Position <-> role key.
+ */
+public final class ScheduleRoles {
+
+    public record RoleOption(String key, String label, ShiftPeriod period, Position position) {}
+
+    public static final List<RoleOption> LUNCH = List.of(
+            new RoleOption("role_LUNCH_SERVER", "Server", ShiftPeriod.LUNCH, Position.LUNCH_SERVER),
+            new RoleOption("role_LUNCH_ASSISTANT", "Assistant", ShiftPeriod.LUNCH, Position.LUNCH_ASSISTANT),
+            new RoleOption("role_LUNCH_MANAGER", "Manager", ShiftPeriod.LUNCH, Position.LUNCH_MANAGER)
+    );
+
+    public static final List<RoleOption> DINNER = List.of(
+            new RoleOption("role_DINNER_SERVER_1", "Server 1", ShiftPeriod.DINNER, Position.SERVER_1),
+            new RoleOption("role_DINNER_SERVER_2", "Server 2", ShiftPeriod.DINNER, Position.SERVER_2),
+            new RoleOption("role_DINNER_SERVER_3", "Server 3", ShiftPeriod.DINNER, Position.SERVER_3),
+            new RoleOption("role_DINNER_SUSHI", "Sushi", ShiftPeriod.DINNER, Position.SUSHI),
+            new RoleOption("role_DINNER_EXPO", "Expo", ShiftPeriod.DINNER, Position.EXPO),
+            new RoleOption("role_DINNER_BUSSER_1", "Busser 1", ShiftPeriod.DINNER, Position.BUSSER_1),
+            new RoleOption("role_DINNER_BUSSER_2", "Busser 2", ShiftPeriod.DINNER, Position.BUSSER_2),
+            new RoleOption("role_DINNER_HOST_1", "Host 1", ShiftPeriod.DINNER, Position.HOST_1),
+            new RoleOption("role_DINNER_HOST_2", "Host 2", ShiftPeriod.DINNER, Position.HOST_2),
+            new RoleOption("role_DINNER_FLOAT", "FLOAT", ShiftPeriod.DINNER, Position.FLOAT)
+    );
+
+    /** Roles the day page does not offer (Server 3 is hidden), so they never count as required. */
+    public static final Set<Position> HIDDEN = Collections.unmodifiableSet(EnumSet.of(Position.SERVER_3));
+
+    /** The restaurant is closed Sundays and Mondays. */
+    public static final Set<DayOfWeek> CLOSED_DAYS =
+            Collections.unmodifiableSet(EnumSet.of(DayOfWeek.SUNDAY, DayOfWeek.MONDAY));
+
+    private static final Map<Position, RoleOption> BY_POSITION;
+    private static final Map<String, RoleOption> BY_KEY;
+
+    static {
+        Map<Position, RoleOption> byPosition = new EnumMap<>(Position.class);
+        Map<String, RoleOption> byKey = new HashMap<>();
+        for (List<RoleOption> group : List.of(LUNCH, DINNER)) {
+            for (RoleOption ro : group) {
+                byPosition.put(ro.position(), ro);
+                byKey.put(ro.key(), ro);
+            }
+        }
+        BY_POSITION = Collections.unmodifiableMap(byPosition);
+        BY_KEY = Collections.unmodifiableMap(byKey);
+    }
+
+    private ScheduleRoles() {}
+
+    /** Role for a form key like "role_DINNER_EXPO", or null if unknown. */
+    public static RoleOption byKey(String key) {
+        return BY_KEY.get(key);
+    }
+
+    /** Roles that must be filled for a period (registry order, hidden roles excluded). */
+    public static List<RoleOption> staffed(ShiftPeriod period) {
+        return (period == ShiftPeriod.LUNCH ? LUNCH : DINNER).stream()
+                .filter(ro -> !HIDDEN.contains(ro.position()))
+                .toList();
+    }
+
+    public static boolean isOpen(DayOfWeek day) {
+        return !CLOSED_DAYS.contains(day);
+    }
+
+    /** Role for a shift's (period, position), or null if the pair is not a valid slot. */
+    public static RoleOption bySlot(ShiftPeriod period, Position position) {
+        RoleOption ro = (position != null) ? BY_POSITION.get(position) : null;
+        return (ro != null && ro.period() == period) ? ro : null;
+    }
+}
@@ -0,0 +1,124 @@
+package com.resto.scheduler.service;
+
+import java.util.Arrays;
+
+/**
+ * Greedy constraint solver for one schedule period, on primitive arrays only (no entities, no I/O).
+ *
+ * Hard constraints: staff must be eligible for the (day, period) (availability + no time off),
+ * manager-only slots take managers, and one slot per person per (day, period).
+ * Soft: spread shifts evenly (lowest period load first), then rotate positions
+ * (fewest times in this slot), then staff index rotated by day so ties do not always go to the same person.
+ *
+ * Slots are filled scarcest-first within each day, so the manager slot and thin periods get first pick.
+ */
+public final class ScheduleSolver {
+
+    /** prefilled cell with nobody in it: the solver may fill it. */
+    public static final int EMPTY = -1;
+    /** prefilled cell held by someone outside the staff list: left alone and counts for nobody. */
+    public static final int BLOCKED = -2;
+
+    /** Solver input. Staff and slots are addressed by index; the caller keeps the mapping. */
+    public record Problem(int staffCount,
+                          boolean[] manager,          // [staff]
+                          boolean[] openDay,          // [day]
+                          int[] slotPeriod,           // [slot] -> period index
+                          boolean[] slotManagerOnly,  // [slot]
+                          boolean[][] eligible,       // [day * periods + period][staff]
+                          int[][] prefilled,          // [day][slot] -> staff index, EMPTY or BLOCKED
+                          int periods) {
+
+        public int days() {
+            return openDay.length;
+        }
+
+        public int slots() {
+            return slotPeriod.length;
+        }
+    }
+
+    private ScheduleSolver() {}
+
+    /** @return [day][slot] -> staff index, EMPTY where nobody eligible was left; prefilled cells (BLOCKED too) are kept. */
+    public static int[][] solve(Problem p) {
+        int days = p.days();
+        int slots = p.slots();
+        int staff = p.staffCount();
+
+        int[][] result = new int[days][];
+        int[] load = new int[staff];                 // shifts held in the period
+        int[][] slotLoad = new int[slots][staff];    // times in each slot (position rotation)
+
+        // Count what is already there so fairness includes manual assignments
+        for (int d = 0; d < days; d++) {
+            result[d] = Arrays.copyOf(p.prefilled()[d], slots);
+            for (int s = 0; s < slots; s++) {
+                int who = result[d][s];
+                if (who >= 0) {
+                    load[who]++;
+                    slotLoad[s][who]++;
+                }
+            }
+        }
+
+        boolean[] busy = new boolean[staff * p.periods()];
+        Integer[] order = new Integer[slots];
+        int[] scarcity = new int[slots];
+
+        for (int d = 0; d < days; d++) {
+            if (!p.openDay()[d]) continue;
+
+            // Who is already working which period today
+            Arrays.fill(busy, false);
+            for (int s = 0; s < slots; s++) {
+                int who = result[d][s];
+                if (who >= 0) busy[who * p.periods() + p.slotPeriod()[s]] = true;
+            }
+
+            // Scarcest slot first
+            for (int s = 0; s < slots; s++) {
+                order[s] = s;
+                scarcity[s] = countCandidates(p, d, s);
+            }
+            Arrays.sort(order, (a, b) -> Integer.compare(scarcity[a], scarcity[b]));
+
+            for (int idx = 0; idx < slots; idx++) {
+                int s = order[idx];
+                if (result[d][s] != EMPTY) continue;
+
+                int period = p.slotPeriod()[s];
+                boolean[] eligibleNow = p.eligible()[d * p.periods() + period];
+                int best = -1;
+
+                for (int k = 0; k < staff; k++) {
+                    int c = (k + d) % staff; // rotate tie-break start per day
+                    if (!eligibleNow[c] || busy[c * p.periods() + period]) continue;
+                    if (p.slotManagerOnly()[s] && !p.manager()[c]) continue;
+                    if (best < 0
+                            || load[c] < load[best]
+                            || (load[c] == load[best] && slotLoad[s][c] < slotLoad[s][best])) {
+                        best = c;
+                    }
+                }
+
+                if (best >= 0) {
+                    result[d][s] = best;
+                    load[best]++;
+                    slotLoad[s][best]++;
+                    busy[best * p.periods() + period] = true;
+                }
+            }
+        }
+        return result;
+    }
+
+    private static int countCandidates(Problem p, int day, int slot) {
+        boolean[] eligibleNow = p.eligible()[day * p.periods() + p.slotPeriod()[slot]];
+        int n = 0;
+        for (int c = 0; c < p.staffCount(); c++) {
+            if (eligibleNow[c] && (!p.slotManagerOnly()[slot] || p.manager()[c])) n++;
+        }
+        return n;
+    }
+}
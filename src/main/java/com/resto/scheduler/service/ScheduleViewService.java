@@ -1,7 +1,5 @@
 package com.resto.scheduler.service;
 
-import com.resto.scheduler.model.SchedulePeriod;
-import com.resto.scheduler.repository.SchedulePeriodRepository;
 import org.springframework.stereotype.Service;
 
 import java.time.DayOfWeek;
@@ -11,11 +9,10 @@ import java.util.Optional;
 @Service
 public class ScheduleViewService {
 
-    private final SchedulePeriodRepository periodRepo;
-    private static final String POSTED = "POSTED";
+    private final PostedPeriodIndex postedPeriods;
 
-    public ScheduleViewService(SchedulePeriodRepository periodRepo) {
-        this.periodRepo = periodRepo;
+    public ScheduleViewService(PostedPeriodIndex postedPeriods) {
+        this.postedPeriods = postedPeriods;
     }
 
     /** Align any date to Monday (start of week). */
@@ -27,27 +24,21 @@ public class ScheduleViewService {
 
     /** Latest posted period start date (if any). */
     public Optional<LocalDate> latestPostedStart() {
-        return periodRepo.findTopByStatusOrderByStartDateDesc(POSTED)
-                .map(SchedulePeriod::getStartDate);
+        return postedPeriods.latest().map(PostedPeriodIndex.Posted::startDate);
     }
 
     /** Given a posted start date, find the previous posted period's start. */
     public Optional<LocalDate> previousPostedStart(LocalDate start) {
-        return periodRepo.findFirstByStatusAndStartDateLessThanOrderByStartDateDesc(POSTED, start)
-                .map(SchedulePeriod::getStartDate);
+        return postedPeriods.previousStart(start);
     }
 
     /** Given a posted start date, find the next posted period's start. */
     public Optional<LocalDate> nextPostedStart(LocalDate start) {
-        return periodRepo.findFirstByStatusAndStartDateGreaterThanOrderByStartDateAsc(POSTED, start)
-                .map(SchedulePeriod::getStartDate);
+        return postedPeriods.nextStart(start);
     }
 
     /** True if the given start belongs to a posted period. */
     public boolean isPostedStart(LocalDate start) {
-        return periodRepo.findByStartDate(start)
-                .map(SchedulePeriod::getStatus)
-                .map(s -> POSTED.equalsIgnoreCase(s))
-                .orElse(false);
+        return postedPeriods.isPostedStart(start);
     }
 }
@@ -0,0 +1,100 @@
+package com.resto.scheduler.service;
+
+import com.resto.scheduler.model.enums.Position;
+import com.resto.scheduler.service.CandidateIndex.StaffMember;
+import com.resto.scheduler.service.ScheduleRoles.RoleOption;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Ranks staff for one slot on the day page.
+ * All inputs come from in-memory indexes (CandidateIndex, AvailabilityService), so once the dates
+ * are cached scoring a slot is a single pass over the roster with no queries.
+ *
+ * Score: available for the weekday/period (+100), minus 10 per shift held in the surrounding
+ * two weeks, plus days since they last worked this position (capped at the 28-day lookback).
+ * People on approved time off, already working that period, or not managers (Lunch Manager) are left out.
+ */
+@Service
+public class SlotSuggestionService {
+
+    public record Suggestion(String username,
+                             String fullName,
+                             int score,
+                             boolean available,
+                             int shiftsInWindow,
+                             Integer daysSincePosition) {}
+
+    private static final int WINDOW_BEFORE = 7;
+    private static final int WINDOW_AFTER = 6;
+    private static final int LOOKBACK_DAYS = 28;
+
+    private final CandidateIndex candidateIndex;
+    private final AvailabilityService availabilityService;
+
+    public SlotSuggestionService(CandidateIndex candidateIndex,
+                                 AvailabilityService availabilityService) {
+        this.candidateIndex = candidateIndex;
+        this.availabilityService = availabilityService;
+    }
+
+    public List<Suggestion> suggest(LocalDate date, RoleOption role, int limit) {
+        LocalDate from = date.minusDays(Math.max(WINDOW_BEFORE, LOOKBACK_DAYS));
+        LocalDate to = date.plusDays(WINDOW_AFTER);
+        Map<LocalDate, long[]> window = candidateIndex.range(from, to);
+
+        // Per-user counters from the cached days (one pass over ~40 days x positions)
+        Map<Long, Integer> shiftsInWindow = new HashMap<>();
+        Map<Long, LocalDate> lastInPosition = new HashMap<>();
+        LocalDate windowStart = date.minusDays(WINDOW_BEFORE);
+        int pos = role.position().ordinal();
+        for (LocalDate d = from; !d.isAfter(to); d = d.plusDays(1)) {
+            long[] slots = window.get(d);
+            if (!d.isBefore(windowStart)) {
+                for (long userId : slots) {
+                    if (userId != 0) shiftsInWindow.merge(userId, 1, Integer::sum);
+                }
+            }
+            if (d.isBefore(date) && slots[pos] != 0) {
+                lastInPosition.put(slots[pos], d); // ascending dates -> keeps the latest
+            }
+        }
+
+        // Who is already working this period today (other than in this slot)
+        long[] today = window.get(date);
+        Set<Long> busy = new HashSet<>();
+        for (RoleOption other : ScheduleRoles.staffed(role.period())) {
+            long userId = today[other.position().ordinal()];
+            if (userId != 0 && other.position() != role.position()) busy.add(userId);
+        }
+
+        Set<Long> off = candidateIndex.timeOffOn(date);
+        boolean managerOnly = role.position() == Position.LUNCH_MANAGER;
+
+        List<Suggestion> out = new ArrayList<>();
+        for (StaffMember m : candidateIndex.roster()) {
+            if (off.contains(m.id()) || busy.contains(m.id())) continue;
+            if (managerOnly && !m.manager()) continue;
+
+            boolean available = availabilityService.isAvailable(m.id(), date.getDayOfWeek(), role.period());
+            int held = shiftsInWindow.getOrDefault(m.id(), 0);
+            LocalDate last = lastInPosition.get(m.id());
+            Integer since = (last != null) ? (int) (date.toEpochDay() - last.toEpochDay()) : null;
+
+            int score = (available ? 100 : 0) - 10 * held + (since != null ? since : LOOKBACK_DAYS);
+            out.add(new Suggestion(m.username(), m.fullName(), score, available, held, since));
+        }
+
+        out.sort(Comparator.comparingInt(Suggestion::score).reversed()
+                .thenComparing(Suggestion::fullName, Comparator.nullsLast(String.CASE_INSENSITIVE_ORDER)));
+        return out.size() > limit ? List.copyOf(out.subList(0, limit)) : out;
+    }
+}
@@ -0,0 +1,84 @@
+package com.resto.scheduler.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Circuit breaker in front of the SMS provider.
+ * CLOSED: sends go through. After failureThreshold consecutive retryable failures it OPENs and
+ * sends are refused (messages stay queued in the outbox) for openMs. Then it goes HALF_OPEN and
+ * lets a single probe through: success closes it, failure opens it again.
+ */
+@Component
+public class SmsCircuitBreaker {
+
+    private static final Logger log = LoggerFactory.getLogger(SmsCircuitBreaker.class);
+
+    public enum State { CLOSED, OPEN, HALF_OPEN }
+
+    private final int failureThreshold;
+    private final long openMs;
+
+    private State state = State.CLOSED;
+    private int consecutiveFailures;
+    private long openedAt;
+    private boolean probeInFlight;
+
+    public SmsCircuitBreaker(@Value("${app.sms.breaker.failure-threshold:5}") int failureThreshold,
+                             @Value("${app.sms.breaker.open-ms:30000}") long openMs) {
+        this.failureThreshold = Math.max(1, failureThreshold);
+        this.openMs = openMs;
+    }
+
+    /** True if a send may be attempted now. */
+    public synchronized boolean allowRequest() {
+        return switch (state()) {
+            case CLOSED -> true;
+            case OPEN -> false;
+            case HALF_OPEN -> {
+                if (probeInFlight) yield false;
+                probeInFlight = true;
+                yield true;
+            }
+        };
+    }
+
+    /** The provider answered, including a permanent rejection of one message. */
+    public synchronized void onSuccess() {
+        if (state != State.CLOSED) {
+            log.info("SMS circuit closed");
+        }
+        state = State.CLOSED;
+        consecutiveFailures = 0;
+        probeInFlight = false;
+    }
+
+    /** Only provider-health failures count; a rejected number says nothing about SNS. */
+    public synchronized void onFailure() {
+        consecutiveFailures++;
+        if (state == State.HALF_OPEN || consecutiveFailures >= failureThreshold) {
+            if (state != State.OPEN) {
+                log.warn("SMS circuit opened after {} consecutive failures; holding messages for {}ms",
+                        consecutiveFailures, openMs);
+            }
+            state = State.OPEN;
+            openedAt = System.currentTimeMillis();
+            probeInFlight = false;
+        }
+    }
+
+    /** How long until the breaker will let a probe through (0 if closed). */
+    public synchronized long remainingOpenMs() {
+        return state == State.OPEN ? Math.max(0, openMs - (System.currentTimeMillis() - openedAt)) : 0;
+    }
+
+    public synchronized State state() {
+        if (state == State.OPEN && System.currentTimeMillis() - openedAt >= openMs) {
+            state = State.HALF_OPEN;
+            probeInFlight = false;
+        }
+        return state;
+    }
+}
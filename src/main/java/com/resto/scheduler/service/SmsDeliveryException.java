@@ -0,0 +1,30 @@
+package com.resto.scheduler.service;
+
+import java.io.Serial;
+
+/**
+ * Thrown by an SmsService when a message could not be handed to the provider.
+ * retryable = worth trying again later (throttling, 5xx, timeouts); otherwise the
+ * message is dead-lettered straight away (bad number, opted out, rejected).
+ */
+public class SmsDeliveryException extends RuntimeException {
+
+    @Serial
+    private static final long serialVersionUID = 1L;
+
+    private final boolean retryable;
+
+    public SmsDeliveryException(String message, boolean retryable) {
+        super(message);
+        this.retryable = retryable;
+    }
+
+    public SmsDeliveryException(String message, boolean retryable, Throwable cause) {
+        super(message, cause);
+        this.retryable = retryable;
+    }
+
+    public boolean isRetryable() {
+        return retryable;
+    }
+}
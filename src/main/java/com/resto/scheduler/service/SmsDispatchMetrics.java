@@ -0,0 +1,69 @@
+package com.resto.scheduler.service;
+
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * In-process counters for the SMS dispatcher: totals since startup, sends in flight,
+ * and latency percentiles over the most recent SAMPLES sends. Queue depth comes from
+ * sms_outbox itself (see SmsOutboxDispatcher#metrics) since other nodes share it.
+ */
+@Component
+public class SmsDispatchMetrics {
+
+    public record Snapshot(long queueDepth,
+                           int inFlight,
+                           long sent,
+                           long failed,
+                           long latencyP50Ms,
+                           long latencyP95Ms,
+                           long latencyMaxMs,
+                           int latencySamples,
+                           String circuit) {}
+
+    private static final int SAMPLES = 1024;
+
+    private final AtomicLong sent = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+    private final AtomicInteger inFlight = new AtomicInteger();
+
+    private final long[] latencyNanos = new long[SAMPLES];
+    private int next;
+    private int count;
+
+    public void started() {
+        inFlight.incrementAndGet();
+    }
+
+    public void finished(boolean ok, long nanos) {
+        inFlight.decrementAndGet();
+        (ok ? sent : failed).incrementAndGet();
+        synchronized (latencyNanos) {
+            latencyNanos[next] = nanos;
+            next = (next + 1) % SAMPLES;
+            if (count < SAMPLES) count++;
+        }
+    }
+
+    public Snapshot snapshot(long queueDepth, String circuit) {
+        long[] sorted;
+        synchronized (latencyNanos) {
+            sorted = Arrays.copyOf(latencyNanos, count);
+        }
+        Arrays.sort(sorted);
+        return new Snapshot(queueDepth, inFlight.get(), sent.get(), failed.get(),
+                percentileMs(sorted, 50), percentileMs(sorted, 95),
+                sorted.length == 0 ? 0 : sorted[sorted.length - 1] / 1_000_000,
+                sorted.length,
+                circuit);
+    }
+
+    private static long percentileMs(long[] sorted, int p) {
+        if (sorted.length == 0) return 0;
+        int i = (int) Math.ceil(p / 100.0 * sorted.length) - 1;
+        return sorted[Math.max(0, i)] / 1_000_000;
+    }
+}
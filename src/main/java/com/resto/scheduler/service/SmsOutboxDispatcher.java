@@ -0,0 +1,333 @@
+package com.resto.scheduler.service;
+
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Sends what NotificationDeliveryService wrote to sms_outbox.
+ * Rows are claimed in small batches with FOR UPDATE SKIP LOCKED (each claim commits on its own),
+ * so several app nodes can drain the same table; the SMS calls happen with no transaction open.
+ * Runs on a poll, and is woken right after a transaction that queued texts commits.
+ *
+ * Sends go through SmsService#sendAsync with at most app.sms.max-in-flight outstanding, throttled
+ * by SmsRateLimiter to the account's messages-per-second quota. A non-blocking provider (sns-async)
+ * needs no thread per send; blocking providers run on a pool of app.sms.concurrency threads.
+ *
+ * Failures: a retryable SmsDeliveryException (or any unexpected error) puts the row back to
+ * PENDING with next_attempt_at = now + random(0, min(max, base * 2^(attempts-1))) ("full jitter");
+ * a permanent one, or running out of attempts, moves it to sms_dead_letter. While
+ * SmsCircuitBreaker is open nothing is claimed, and rows it refuses mid-batch are re-queued
+ * without using up an attempt.
+ *
+ * Claiming a row closes its per-phone digest (coalescing = false). On shutdown a node flushes the
+ * digests it opened (queued_by) and drains for at most SHUTDOWN_DRAIN_MS; other nodes' digests keep
+ * their window, and whatever is left is sent by the remaining nodes or after restart.
+ *
+ * Delivery is at-least-once: a row left SENDING by a node that died is reclaimed after 5 minutes.
+ */
+@Component
+public class SmsOutboxDispatcher {
+
+    private static final Logger log = LoggerFactory.getLogger(SmsOutboxDispatcher.class);
+
+    private static final long SHUTDOWN_DRAIN_MS = 5_000;
+
+    private static final String CLAIM = """
+            update sms_outbox
+            set status = 'SENDING', claimed_at = now(), attempts = attempts + 1, coalescing = false
+            where id in (
+                select id from sms_outbox
+                where (status = 'PENDING' and next_attempt_at <= now())
+                   or (status = 'SENDING' and claimed_at < now() - interval '5 minutes')
+                order by id
+                limit ?
+                for update skip locked
+            )
+            returning id, recipient_id, phone_number, publish_job_id, attempts,
+                      case when overflow_count > 0
+                           then message || E'\\n\\n+' || overflow_count || ' more update(s). Log in to view.'
+                           else message end as message
+            """;
+
+    private static final String MARK_SENT = "update sms_outbox set status = 'SENT', sent_at = now(), last_error = null where id = ?";
+    private static final String RETRY_LATER = """
+            update sms_outbox
+            set status = 'PENDING', next_attempt_at = now() + ? * interval '1 millisecond', last_error = ?
+            where id = ?
+            """;
+    // Breaker refused the send: not an attempt, so give it back
+    private static final String DEFER = """
+            update sms_outbox
+            set status = 'PENDING', attempts = attempts - 1, next_attempt_at = now() + ? * interval '1 millisecond'
+            where id = ?
+            """;
+    private static final String DEAD_LETTER = """
+            with moved as (
+                delete from sms_outbox where id = ?
+                returning id, recipient_id, phone_number, message, attempts, publish_job_id, created_at
+            )
+            insert into sms_dead_letter (outbox_id, recipient_id, phone_number, message, attempts,
+                                         publish_job_id, last_error, queued_at)
+            select id, recipient_id, phone_number, message, attempts, publish_job_id, ?, created_at from moved
+            """;
+    private static final String BUMP_JOB = "update publish_job set sms_sent = sms_sent + ?, sms_failed = sms_failed + ? where id = ?";
+
+    private record Claimed(long id, Long recipientId, String phoneNumber, String message, Long publishJobId, int attempts) {}
+
+    private enum Result { SENT, RETRY, DEAD, DEFERRED }
+
+    private record Outcome(Claimed message, Result result, String error) {}
+
+    private final JdbcTemplate jdbc;
+    private final SmsService smsService;
+    private final SmsRateLimiter rateLimiter;
+    private final SmsDispatchMetrics metrics;
+    private final SmsCircuitBreaker breaker;
+    private final int batchSize;
+    private final int maxAttempts;
+    private final long backoffBaseMs;
+    private final long backoffMaxMs;
+    private final ExecutorService senders;
+    private final Semaphore inFlight;
+
+    // Recorded on digests this node opens (sms_outbox.queued_by)
+    private final String nodeId = UUID.randomUUID().toString();
+
+    private final ReentrantLock draining = new ReentrantLock();
+    private final ExecutorService wakeups = Executors.newSingleThreadExecutor(r -> {
+        Thread t = new Thread(r, "sms-outbox");
+        t.setDaemon(true);
+        return t;
+    });
+
+    public SmsOutboxDispatcher(JdbcTemplate jdbc,
+                               SmsService smsService,
+                               SmsRateLimiter rateLimiter,
+                               SmsDispatchMetrics metrics,
+                               SmsCircuitBreaker breaker,
+                               @Value("${app.sms.outbox.batch-size:50}") int batchSize,
+                               @Value("${app.sms.concurrency:8}") int concurrency,
+                               @Value("${app.sms.max-in-flight:64}") int maxInFlight,
+                               @Value("${app.sms.retry.max-attempts:6}") int maxAttempts,
+                               @Value("${app.sms.retry.base-ms:2000}") long backoffBaseMs,
+                               @Value("${app.sms.retry.max-ms:300000}") long backoffMaxMs) {
+        this.jdbc = jdbc;
+        this.smsService = smsService;
+        this.rateLimiter = rateLimiter;
+        this.metrics = metrics;
+        this.breaker = breaker;
+        this.batchSize = batchSize;
+        this.maxAttempts = Math.max(1, maxAttempts);
+        this.backoffBaseMs = backoffBaseMs;
+        this.backoffMaxMs = backoffMaxMs;
+        this.inFlight = new Semaphore(Math.max(1, maxInFlight));
+        AtomicInteger threadNo = new AtomicInteger();
+        this.senders = Executors.newFixedThreadPool(Math.max(1, concurrency), r -> {
+            Thread t = new Thread(r, "sms-send-" + threadNo.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    public String nodeId() {
+        return nodeId;
+    }
+
+    /** Current counters plus the unsent backlog across all nodes. */
+    public SmsDispatchMetrics.Snapshot metrics() {
+        Long depth = jdbc.queryForObject(
+                "select count(*) from sms_outbox where status in ('PENDING','SENDING')", Long.class);
+        return metrics.snapshot(depth != null ? depth : 0, breaker.state().name());
+    }
+
+    /** Drain soon on a background thread; called after a commit that queued texts. */
+    public void wake() {
+        try {
+            wakeups.execute(this::drain);
+        } catch (RejectedExecutionException ex) {
+            // shutting down; the next node/poll picks the rows up
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.sms.outbox.poll-ms:5000}")
+    public void drain() {
+        // One drain per node at a time; other nodes are kept apart by SKIP LOCKED
+        if (!draining.tryLock()) {
+            return;
+        }
+        try {
+            List<Claimed> batch;
+            // An open breaker leaves the rows queued instead of paying a timeout per message
+            while (!Thread.currentThread().isInterrupted() && breaker.state() != SmsCircuitBreaker.State.OPEN
+                    && !(batch = claim()).isEmpty()) {
+                send(batch);
+            }
+        } catch (RuntimeException ex) {
+            log.error("SMS outbox drain failed", ex);
+        } finally {
+            draining.unlock();
+        }
+    }
+
+    private List<Claimed> claim() {
+        return jdbc.query(CLAIM, (rs, i) -> new Claimed(
+                rs.getLong("id"),
+                (Long) rs.getObject("recipient_id"),
+                rs.getString("phone_number"),
+                rs.getString("message"),
+                (Long) rs.getObject("publish_job_id"),
+                rs.getInt("attempts")
+        ), batchSize);
+    }
+
+    private void send(List<Claimed> batch) {
+        // Starting a send only waits for a rate token and an in-flight permit; completions come back async
+        List<CompletableFuture<Outcome>> started = new ArrayList<>(batch.size());
+        try {
+            for (Claimed m : batch) {
+                started.add(sendOne(m));
+            }
+        } catch (InterruptedException ex) {
+            // Rows not started stay SENDING and are reclaimed later; record the ones in flight
+            Thread.currentThread().interrupt();
+        }
+        List<Outcome> outcomes = new ArrayList<>(started.size());
+        for (CompletableFuture<Outcome> f : started) {
+            outcomes.add(f.join());
+        }
+
+        List<Object[]> sent = new ArrayList<>();
+        List<Object[]> retries = new ArrayList<>();
+        List<Object[]> deferred = new ArrayList<>();
+        List<Object[]> dead = new ArrayList<>();
+        Map<Long, int[]> perJob = new HashMap<>(); // jobId -> {sent, failed}
+        long deferMs = Math.max(breaker.remainingOpenMs(), backoffBaseMs);
+        for (Outcome o : outcomes) {
+            Claimed m = o.message();
+            switch (o.result()) {
+                case SENT -> sent.add(new Object[]{m.id()});
+                case RETRY -> retries.add(new Object[]{backoffMs(m.attempts()), o.error(), m.id()});
+                case DEFERRED -> deferred.add(new Object[]{deferMs, m.id()});
+                case DEAD -> dead.add(new Object[]{m.id(), o.error()});
+            }
+            // A job's texts are final once sent or dead-lettered
+            if (m.publishJobId() != null && (o.result() == Result.SENT || o.result() == Result.DEAD)) {
+                perJob.computeIfAbsent(m.publishJobId(), k -> new int[2])[o.result() == Result.SENT ? 0 : 1]++;
+            }
+        }
+
+        if (!sent.isEmpty()) jdbc.batchUpdate(MARK_SENT, sent);
+        if (!retries.isEmpty()) jdbc.batchUpdate(RETRY_LATER, retries);
+        if (!deferred.isEmpty()) jdbc.batchUpdate(DEFER, deferred);
+        if (!dead.isEmpty()) jdbc.batchUpdate(DEAD_LETTER, dead);
+        perJob.forEach((jobId, counts) -> jdbc.update(BUMP_JOB, counts[0], counts[1], jobId));
+    }
+
+    private CompletableFuture<Outcome> sendOne(Claimed m) throws InterruptedException {
+        if (!breaker.allowRequest()) {
+            return CompletableFuture.completedFuture(new Outcome(m, Result.DEFERRED, null));
+        }
+        inFlight.acquire();
+        try {
+            rateLimiter.acquire();
+        } catch (InterruptedException ex) {
+            inFlight.release();
+            throw ex;
+        }
+        metrics.started();
+        long t0 = System.nanoTime();
+        CompletableFuture<Void> send;
+        try {
+            send = smsService.sendAsync(m.phoneNumber(), m.message(), senders);
+        } catch (RuntimeException ex) {
+            send = CompletableFuture.failedFuture(ex);
+        }
+        return send.handle((ignored, ex) -> {
+            inFlight.release();
+            return outcome(m, ex, System.nanoTime() - t0);
+        });
+    }
+
+    private Outcome outcome(Claimed m, Throwable failure, long nanos) {
+        if (failure == null) {
+            metrics.finished(true, nanos);
+            breaker.onSuccess();
+            return new Outcome(m, Result.SENT, null);
+        }
+        metrics.finished(false, nanos);
+        Throwable ex = failure instanceof CompletionException && failure.getCause() != null ? failure.getCause() : failure;
+        // Unknown errors are treated as transient; a rejected message is final and says nothing about SNS health
+        boolean retryable = !(ex instanceof SmsDeliveryException sde) || sde.isRetryable();
+        if (retryable) {
+            breaker.onFailure();
+        } else {
+            // The provider answered; this also ends a HALF_OPEN probe, which would otherwise stay out forever
+            breaker.onSuccess();
+        }
+        String error = ex.getMessage() != null ? ex.getMessage() : ex.getClass().getSimpleName();
+        error = error.length() > 1000 ? error.substring(0, 1000) : error;
+        if (retryable && m.attempts() < maxAttempts) {
+            log.warn("SMS {} to user {} failed (attempt {}/{}), will retry: {}",
+                    m.id(), m.recipientId(), m.attempts(), maxAttempts, error);
+            return new Outcome(m, Result.RETRY, error);
+        }
+        log.error("SMS {} to user {} dead-lettered after {} attempt(s): {}",
+                m.id(), m.recipientId(), m.attempts(), error);
+        return new Outcome(m, Result.DEAD, error);
+    }
+
+    // Full jitter: uniform in [0, min(max, base * 2^(attempts-1))]
+    long backoffMs(int attempts) {
+        long ceiling = backoffBaseMs << Math.min(Math.max(0, attempts - 1), 20);
+        return ThreadLocalRandom.current().nextLong(Math.min(backoffMaxMs, ceiling) + 1);
+    }
+
+    /** This node's held digests go out now instead of waiting for their window (rows survive a shutdown anyway). */
+    public int flushCoalesced() {
+        return jdbc.update("""
+                update sms_outbox set next_attempt_at = now()
+                where coalescing and queued_by = ? and next_attempt_at > now()
+                """, nodeId);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        try {
+            if (flushCoalesced() > 0) {
+                // Bounded so a slow provider or a long backlog cannot hold up shutdown
+                wakeups.submit(this::drain).get(SHUTDOWN_DRAIN_MS, TimeUnit.MILLISECONDS);
+            }
+        } catch (TimeoutException ex) {
+            log.warn("SMS outbox not drained within {} ms of shutdown; the rest stays queued", SHUTDOWN_DRAIN_MS);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        } catch (RuntimeException | ExecutionException ex) {
+            log.warn("Could not flush held SMS digests on shutdown: {}", ex.getMessage());
+        }
+        wakeups.shutdownNow();
+        senders.shutdownNow();
+    }
+}
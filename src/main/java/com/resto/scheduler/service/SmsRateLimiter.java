@@ -0,0 +1,55 @@
+package com.resto.scheduler.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Token bucket shared by all SMS sender threads on this node.
+ * app.sms.rate-per-second and app.sms.burst are the SNS account's quota, which every node sends
+ * against; each node takes an equal 1/app.sms.nodes share of both, so the nodes together stay
+ * within the quota as long as app.sms.nodes is at least the number of nodes running.
+ * acquire() blocks the sender until a token is free.
+ */
+@Component
+public class SmsRateLimiter {
+
+    private final double permitsPerNano;
+    private final double capacity;
+
+    private double tokens;
+    private long lastRefill = System.nanoTime();
+
+    public SmsRateLimiter(@Value("${app.sms.rate-per-second:20}") double ratePerSecond,
+                          @Value("${app.sms.burst:20}") int burst,
+                          @Value("${app.sms.nodes:1}") int nodes) {
+        if (ratePerSecond <= 0 || burst < 1 || nodes < 1) {
+            throw new IllegalArgumentException(
+                    "app.sms.rate-per-second must be > 0, app.sms.burst >= 1 and app.sms.nodes >= 1");
+        }
+        this.permitsPerNano = ratePerSecond / nodes / TimeUnit.SECONDS.toNanos(1);
+        // A node always needs one token to send; below that the nodes together may burst a little over
+        this.capacity = Math.max(1.0, (double) burst / nodes);
+        this.tokens = capacity;
+    }
+
+    public void acquire() throws InterruptedException {
+        long waitNanos;
+        while ((waitNanos = tryAcquire()) > 0) {
+            TimeUnit.NANOSECONDS.sleep(waitNanos);
+        }
+    }
+
+    // 0 when a token was taken, otherwise how long until the next one is due
+    private synchronized long tryAcquire() {
+        long now = System.nanoTime();
+        tokens = Math.min(capacity, tokens + (now - lastRefill) * permitsPerNano);
+        lastRefill = now;
+        if (tokens >= 1) {
+            tokens -= 1;
+            return 0;
+        }
+        return Math.max(1, (long) Math.ceil((1 - tokens) / permitsPerNano));
+    }
+}
@@ -1,5 +1,17 @@
 package com.resto.scheduler.service;
 
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+
 public interface SmsService {
     void send(String phoneNumber, String message);
-}
\ No newline at end of file
+
+    /**
+     * Start a send and return at once. The default runs the blocking send() on the given
+     * executor; providers with a non-blocking client override it and ignore the executor.
+     * The future fails with SmsDeliveryException like send() would throw it.
+     */
+    default CompletableFuture<Void> sendAsync(String phoneNumber, String message, Executor blockingExecutor) {
+        return CompletableFuture.runAsync(() -> send(phoneNumber, message), blockingExecutor);
+    }
+}
@@ -0,0 +1,6 @@
+package com.resto.scheduler.service;
+
+import java.time.LocalDate;
+
+/** Published when a TIME_OFF request for date is approved or denied; indexes drop that date after commit. */
+public record TimeOffChangedEvent(LocalDate date) {}
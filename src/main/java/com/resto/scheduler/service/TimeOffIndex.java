@@ -0,0 +1,27 @@
+package com.resto.scheduler.service;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Approved TIME_OFF for a date range, built from one query.
+ * userIdsByDate is for membership checks; namesByDate feeds the badges.
+ */
+public record TimeOffIndex(Map<LocalDate, Set<Long>> userIdsByDate,
+                           Map<LocalDate, List<String>> namesByDate) {
+
+    public boolean isOff(Long userId, LocalDate date) {
+        Set<Long> ids = userIdsByDate.get(date);
+        return ids != null && ids.contains(userId);
+    }
+
+    public Set<Long> userIdsOn(LocalDate date) {
+        return userIdsByDate.getOrDefault(date, Set.of());
+    }
+
+    public List<String> namesOn(LocalDate date) {
+        return namesByDate.getOrDefault(date, List.of());
+    }
+}
@@ -0,0 +1,73 @@
+package com.resto.scheduler.service;
+
+import com.resto.scheduler.repository.NotificationRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Per-user unread notification count for the navbar badge.
+ * Seeded from the database on first use, then kept current in memory: NotificationRelay applies
+ * new and read notifications once committed, from this node or (via LISTEN/NOTIFY) any other.
+ * Only users already cached are adjusted (an uncached user is simply seeded later). Entries are
+ * still re-read after ttlMs in case a relay event was missed, and to pick up the nightly cleanup.
+ * The seed query runs outside any map lock. An adjustment arriving while it runs may or may not
+ * be in its result, so it cancels the seed: that result is returned but not cached.
+ */
+@Component
+public class UnreadCountCache {
+
+    // count < 0 marks a seed in progress; seed tells concurrent seeds of one user apart
+    private record Entry(long count, long loadedAt, long seed) {
+        boolean seeding() {
+            return count < 0;
+        }
+    }
+
+    private final NotificationRepository notificationRepo;
+    private final long ttlMs;
+    private final ConcurrentHashMap<Long, Entry> counts = new ConcurrentHashMap<>();
+    private final AtomicLong seeds = new AtomicLong();
+
+    public UnreadCountCache(NotificationRepository notificationRepo,
+                            @Value("${app.notifications.unread-cache-ttl-ms:60000}") long ttlMs) {
+        this.notificationRepo = notificationRepo;
+        this.ttlMs = ttlMs;
+    }
+
+    public long get(Long userId) {
+        long now = System.currentTimeMillis();
+        Entry e = counts.get(userId);
+        if (e != null && !e.seeding() && now - e.loadedAt() <= ttlMs) {
+            return e.count();
+        }
+        Entry marker = new Entry(-1, now, seeds.incrementAndGet());
+        counts.put(userId, marker);
+        long count = notificationRepo.countByRecipientIdAndReadIsFalse(userId);
+        // Stored only if nothing adjusted (or re-seeded) this user while the query ran
+        counts.replace(userId, marker, new Entry(count, now, 0));
+        return count;
+    }
+
+    /** One new (committed) unread notification for each of these users. */
+    public void added(Collection<Long> userIds) {
+        userIds.forEach(id -> adjust(id, 1));
+    }
+
+    public void markedRead(Long userId) {
+        adjust(userId, -1);
+    }
+
+    /** Drop everything, e.g. after a bulk delete; counts are re-seeded on demand. */
+    public void invalidateAll() {
+        counts.clear();
+    }
+
+    private void adjust(Long userId, long delta) {
+        counts.computeIfPresent(userId, (id, e) ->
+                e.seeding() ? null : new Entry(Math.max(0, e.count() + delta), e.loadedAt(), 0));
+    }
+}
@@ -1 +1,81 @@
-package com.resto.scheduler.service.impl; import org.springframework.stereotype.Service; import com.resto.scheduler.service.AvailabilityService; @Service public class AvailabilityServiceImpl implements AvailabilityService {}
\ No newline at end of file
+package com.resto.scheduler.service.impl;
+
+import com.resto.scheduler.model.enums.RequestStatus;
+import com.resto.scheduler.model.enums.ShiftPeriod;
+import com.resto.scheduler.repository.AvailabilityRepository;
+import com.resto.scheduler.service.AvailabilityService;
+import org.springframework.stereotype.Service;
+
+import java.time.DayOfWeek;
+import java.util.BitSet;
+
+/**
+ * In-memory availability index: one BitSet per (DayOfWeek, ShiftPeriod), bit = user id.
+ * Loaded lazily with a single query and dropped whenever availability is approved/denied/resubmitted.
+ */
+@Service
+public class AvailabilityServiceImpl implements AvailabilityService {
+
+    private static final int PERIODS = ShiftPeriod.values().length;
+
+    private final AvailabilityRepository availabilityRepo;
+
+    // null = not loaded (or invalidated)
+    private volatile BitSet[] index;
+
+    public AvailabilityServiceImpl(AvailabilityRepository availabilityRepo) {
+        this.availabilityRepo = availabilityRepo;
+    }
+
+    @Override
+    public boolean isAvailable(Long userId, DayOfWeek day, ShiftPeriod period) {
+        if (userId == null || day == null || period == null) {
+            return false;
+        }
+        return index()[slot(day, period)].get(Math.toIntExact(userId));
+    }
+
+    @Override
+    public synchronized void invalidate() {
+        index = null;
+    }
+
+    private BitSet[] index() {
+        BitSet[] current = index;
+        if (current != null) {
+            return current;
+        }
+        synchronized (this) {
+            if (index == null) {
+                index = load();
+            }
+            return index;
+        }
+    }
+
+    private BitSet[] load() {
+        BitSet[] slots = new BitSet[DayOfWeek.values().length * PERIODS];
+        for (int i = 0; i < slots.length; i++) {
+            slots[i] = new BitSet();
+        }
+
+        // Treat null (legacy rows) as APPROVED so existing data still works
+        for (var row : availabilityRepo.findFlagsByStatusOrLegacy(RequestStatus.APPROVED)) {
+            if (row.getUserId() == null || row.getDayOfWeek() == null) {
+                continue;
+            }
+            int userBit = Math.toIntExact(row.getUserId());
+            if (Boolean.TRUE.equals(row.getLunchAvailable())) {
+                slots[slot(row.getDayOfWeek(), ShiftPeriod.LUNCH)].set(userBit);
+            }
+            if (Boolean.TRUE.equals(row.getDinnerAvailable())) {
+                slots[slot(row.getDayOfWeek(), ShiftPeriod.DINNER)].set(userBit);
+            }
+        }
+        return slots;
+    }
+
+    private static int slot(DayOfWeek day, ShiftPeriod period) {
+        return day.ordinal() * PERIODS + period.ordinal();
+    }
+}
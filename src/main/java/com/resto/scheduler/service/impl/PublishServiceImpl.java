@@ -1,21 +1,26 @@
 package com.resto.scheduler.service.impl;
 
-import com.resto.scheduler.model.PublishedAssignment;
 import com.resto.scheduler.model.SchedulePeriod;
-import com.resto.scheduler.model.Shift;
 import com.resto.scheduler.repository.AssignmentRepository;
 import com.resto.scheduler.repository.PublishedAssignmentRepository;
 import com.resto.scheduler.repository.SchedulePeriodRepository;
-import com.resto.scheduler.repository.ShiftRepository;
 import com.resto.scheduler.service.PublishService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import com.resto.scheduler.model.AppUser;
-import com.resto.scheduler.model.Assignment;
 import com.resto.scheduler.model.enums.NotificationType;
 import com.resto.scheduler.repository.AppUserRepository;
 import com.resto.scheduler.service.NotificationDeliveryService;
+import com.resto.scheduler.service.PostedPeriodIndex;
+import com.resto.scheduler.service.PublishProgress;
+import com.resto.scheduler.service.PublishedVersionService;
+import com.resto.scheduler.service.PublishedVersionService.Slot;
+import com.resto.scheduler.model.enums.Position;
+import com.resto.scheduler.model.enums.ShiftPeriod;
 import org.springframework.beans.factory.annotation.Value;
 
 import java.time.format.DateTimeFormatter;
@@ -23,6 +28,8 @@ import java.util.HashSet;
 import java.util.Set;
 
 import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -32,226 +39,187 @@ import java.util.Objects;
 public class PublishServiceImpl implements PublishService {
 
     private final SchedulePeriodRepository periodRepo;
-    private final ShiftRepository shiftRepo;
     private final AssignmentRepository assignmentRepo;
     private final PublishedAssignmentRepository publishedRepo;
 
     private final AppUserRepository appUserRepo;
     private final NotificationDeliveryService notificationDeliveryService;
+    private final PostedPeriodIndex postedPeriodIndex;
+    private final PublishedVersionService versionService;
+    private final JdbcTemplate jdbc;
 
     @Value("${app.public-login-url}")
     private String publicLoginUrl;
 
+    private static final Logger log = LoggerFactory.getLogger(PublishServiceImpl.class);
+
+    // Republish writes only the delta against uq_published (schedule_period_id, date, period, position)
+    private static final String UPSERT_PUBLISHED = """
+            insert into published_assignment (schedule_period_id, date, period, position, user_id)
+            values (?, ?, ?, ?, ?)
+            on conflict on constraint uq_published do update set user_id = excluded.user_id
+            """;
+    private static final String DELETE_PUBLISHED = """
+            delete from published_assignment
+            where schedule_period_id = ? and date = ? and period = ? and position = ?
+            """;
+
     private static final DateTimeFormatter PUBLISH_DATE_FMT =
             DateTimeFormatter.ofPattern("MM-dd-yy");
 
     public PublishServiceImpl(SchedulePeriodRepository periodRepo,
-                              ShiftRepository shiftRepo,
                               AssignmentRepository assignmentRepo,
                               PublishedAssignmentRepository publishedRepo,
                               AppUserRepository appUserRepo,
-                              NotificationDeliveryService notificationDeliveryService) {
+                              NotificationDeliveryService notificationDeliveryService,
+                              PostedPeriodIndex postedPeriodIndex,
+                              PublishedVersionService versionService,
+                              JdbcTemplate jdbc) {
         this.periodRepo = periodRepo;
-        this.shiftRepo = shiftRepo;
         this.assignmentRepo = assignmentRepo;
         this.publishedRepo = publishedRepo;
         this.appUserRepo = appUserRepo;
         this.notificationDeliveryService = notificationDeliveryService;
+        this.postedPeriodIndex = postedPeriodIndex;
+        this.versionService = versionService;
+        this.jdbc = jdbc;
     }
 
     @Override
     @Transactional
-    public void snapshotPeriod(Long schedulePeriodId) {
+    public SnapshotResult snapshotPeriod(Long schedulePeriodId) {
+        long t0 = System.nanoTime();
         SchedulePeriod sp = periodRepo.findById(schedulePeriodId).orElseThrow();
         if (!"POSTED".equalsIgnoreCase(sp.getStatus())) {
-            return;
+            return SnapshotResult.SKIPPED;
         }
 
-        // Determine whether this is the first publish or a republish
-        List<PublishedAssignment> existingPublishedRows = publishedRepo.findBySchedulePeriod_Id(sp.getId());
-        boolean firstPublish = existingPublishedRows.isEmpty();
+        // Mark the snapshot as taken at the current live revision before reading, so any write
+        // committed after this point leaves live > published and the period shows "needs republish"
+        jdbc.update("update schedule_period set published_revision = live_revision where id = ?", sp.getId());
 
-        // Build old published user map BEFORE deleting old snapshot rows
-        record Key(LocalDate d, String per, String pos) {}
+        // Old snapshot (one projection query) — empty means first publish
+        record Key(LocalDate d, ShiftPeriod per, Position pos) {}
         Map<Key, Long> oldPublishedMap = new HashMap<>();
-        Set<Long> oldPublishedUserIds = new HashSet<>();
-
-        for (PublishedAssignment pa : existingPublishedRows) {
-            Key key = new Key(pa.getDate(), pa.getPeriod().name(), pa.getPosition().name());
-            Long userId = pa.getUser() != null ? pa.getUser().getId() : null;
-            oldPublishedMap.put(key, userId);
-            if (userId != null) {
-                oldPublishedUserIds.add(userId);
-            }
+        var existingRows = publishedRepo.findSnapshotRowsByPeriodId(sp.getId());
+        boolean firstPublish = existingRows.isEmpty();
+
+        for (var row : existingRows) {
+            oldPublishedMap.put(new Key(row.getDate(), row.getPeriod(), row.getPosition()), row.getUserId());
         }
 
-        // Build current/live map from shifts + assignments
+        // Live grid: shifts + assignments + employees in one join
         Map<Key, Long> newPublishedMap = new HashMap<>();
-        Set<Long> newPublishedUserIds = new HashSet<>();
+        Map<Long, String> names = new HashMap<>(); // recorded with each version
+        for (var row : assignmentRepo.findAssignedSlotsByDateBetween(sp.getStartDate(), sp.getEndDate())) {
+            newPublishedMap.put(new Key(row.getDate(), row.getPeriod(), row.getPosition()), row.getUserId());
+            names.put(row.getUserId(), row.getFullName());
+        }
+        long readMs = (System.nanoTime() - t0) / 1_000_000;
 
-        var shifts = shiftRepo.findByDateBetween(sp.getStartDate(), sp.getEndDate());
-        for (Shift s : shifts) {
-            var aOpt = assignmentRepo.findByShift(s);
-            if (aOpt.isEmpty()) {
+        // Delta: upsert added/changed slots, delete removed ones; collect who is affected
+        List<Object[]> upserts = new ArrayList<>();
+        List<Object[]> deletes = new ArrayList<>();
+        List<Slot> changedSlots = new ArrayList<>();
+        List<Slot> removedSlots = new ArrayList<>();
+        Set<Long> affectedUserIds = new HashSet<>();
+
+        for (Map.Entry<Key, Long> e : newPublishedMap.entrySet()) {
+            Key k = e.getKey();
+            Long newUserId = e.getValue();
+            boolean existed = oldPublishedMap.containsKey(k);
+            Long oldUserId = oldPublishedMap.get(k);
+            if (existed && Objects.equals(oldUserId, newUserId)) {
                 continue;
             }
-
-            Assignment a = aOpt.get();
-            AppUser employee = a.getEmployee();
-            Long userId = employee != null ? employee.getId() : null;
-
-            Key key = new Key(s.getDate(), s.getPeriod().name(), s.getPosition().name());
-            newPublishedMap.put(key, userId);
-
-            if (userId != null) {
-                newPublishedUserIds.add(userId);
+            upserts.add(new Object[]{sp.getId(), k.d(), k.per().name(), k.pos().name(), newUserId});
+            changedSlots.add(new Slot(k.d(), k.per(), k.pos(), newUserId, names.get(newUserId)));
+            if (oldUserId != null) affectedUserIds.add(oldUserId);
+            if (newUserId != null) affectedUserIds.add(newUserId);
+        }
+        for (Map.Entry<Key, Long> e : oldPublishedMap.entrySet()) {
+            Key k = e.getKey();
+            if (newPublishedMap.containsKey(k)) {
+                continue;
             }
+            deletes.add(new Object[]{sp.getId(), k.d(), k.per().name(), k.pos().name()});
+            removedSlots.add(new Slot(k.d(), k.per(), k.pos(), e.getValue(), null));
+            if (e.getValue() != null) affectedUserIds.add(e.getValue());
         }
 
-        // Replace snapshot rows
-        publishedRepo.deleteAllBySchedulePeriodId(sp.getId());
+        if (!deletes.isEmpty()) jdbc.batchUpdate(DELETE_PUBLISHED, deletes);
+        if (!upserts.isEmpty()) jdbc.batchUpdate(UPSERT_PUBLISHED, upserts);
 
-        for (Shift s : shifts) {
-            var aOpt = assignmentRepo.findByShift(s);
-            if (aOpt.isEmpty()) {
-                continue;
-            }
+        // Immutable history: the same delta (or a full checkpoint) becomes the next version
+        List<Slot> liveSlots = new ArrayList<>(newPublishedMap.size());
+        newPublishedMap.forEach((k, userId) -> liveSlots.add(new Slot(k.d(), k.per(), k.pos(), userId, names.get(userId))));
+        int version = versionService.recordVersion(sp.getId(), liveSlots, changedSlots, removedSlots);
 
-            Assignment a = aOpt.get();
+        log.info("Snapshot period {} ({}..{}): version={}, live={}, upserted={}, deleted={}, firstPublish={}, read={}ms, total={}ms",
+                sp.getId(), sp.getStartDate(), sp.getEndDate(), version, newPublishedMap.size(), upserts.size(), deletes.size(),
+                firstPublish, readMs, (System.nanoTime() - t0) / 1_000_000);
 
-            PublishedAssignment pub = new PublishedAssignment();
-            pub.setSchedulePeriod(sp);
-            pub.setDate(s.getDate());
-            pub.setPeriod(s.getPeriod());
-            pub.setPosition(s.getPosition());
-            pub.setUser(a.getEmployee());
-            publishedRepo.save(pub);
-        }
+        return new SnapshotResult(firstPublish, upserts.size() + deletes.size(), affectedUserIds);
+    }
 
-        // Notify users
-        if (firstPublish) {
-            notifyAllUsersForFirstPublish(sp);
-        } else {
-            notifyAffectedUsersForRepublish(sp, oldPublishedMap, newPublishedMap, oldPublishedUserIds, newPublishedUserIds);
+    /** Joins the caller's transaction; the publish job commits it together with the job's notified marker. */
+    @Override
+    public void notifyPublished(Long schedulePeriodId, SnapshotResult result, PublishProgress progress) {
+        SchedulePeriod sp = periodRepo.findById(schedulePeriodId).orElseThrow();
+        if (result.firstPublish()) {
+            notifyAllUsersForFirstPublish(sp, progress);
+        } else if (!result.affectedUserIds().isEmpty()) {
+            notifyAffectedUsersForRepublish(sp, result.affectedUserIds(), progress);
         }
     }
 
     @Override
     @Transactional
     public void snapshotLatestPosted() {
-        periodRepo.findTopByStatusOrderByStartDateDesc("POSTED")
-                .ifPresent(sp -> snapshotPeriod(sp.getId()));
+        postedPeriodIndex.latest().ifPresent(p ->
+                notifyPublished(p.id(), snapshotPeriod(p.id()), PublishProgress.NONE));
     }
 
-    private void notifyAllUsersForFirstPublish(SchedulePeriod sp) {
-        Set<AppUser> recipients = new HashSet<>();
-        recipients.addAll(appUserRepo.findByRoles_Name("EMPLOYEE"));
-        recipients.addAll(appUserRepo.findByRoles_Name("MANAGER"));
+    private void notifyAllUsersForFirstPublish(SchedulePeriod sp, PublishProgress progress) {
+        List<AppUser> recipients = appUserRepo.findDistinctByEnabledTrueAndRoles_NameIn(List.of("EMPLOYEE", "MANAGER"));
 
         String range = sp.getStartDate().format(PUBLISH_DATE_FMT) + " to " + sp.getEndDate().format(PUBLISH_DATE_FMT);
         String payload = "New schedule published for " + range;
         String smsMessage = "SKT Scheduler: A new schedule was published for " + range
                 + ". Log in to view: " + publicLoginUrl;
 
-        for (AppUser user : recipients) {
-            if (user == null || !user.isEnabled()) {
-                continue;
-            }
+        progress.recipients(recipients.size());
 
-            notificationDeliveryService.notifyInAppAndSms(
-                    user,
-                    NotificationType.SCHEDULE_PUBLISHED,
-                    payload,
-                    smsMessage
-            );
-        }
+        fanOut(recipients, NotificationType.SCHEDULE_PUBLISHED, payload, smsMessage, progress);
     }
 
-    private void notifyAffectedUsersForRepublish(SchedulePeriod sp,
-                                                 Map<?, Long> oldPublishedMap,
-                                                 Map<?, Long> newPublishedMap,
-                                                 Set<Long> oldPublishedUserIds,
-                                                 Set<Long> newPublishedUserIds) {
-        Set<Long> affectedUserIds = new HashSet<>();
-
-        Set<Object> allKeys = new HashSet<>();
-        allKeys.addAll(oldPublishedMap.keySet());
-        allKeys.addAll(newPublishedMap.keySet());
-
-        for (Object key : allKeys) {
-            Long oldUserId = oldPublishedMap.get(key);
-            Long newUserId = newPublishedMap.get(key);
-
-            if (!Objects.equals(oldUserId, newUserId)) {
-                if (oldUserId != null) {
-                    affectedUserIds.add(oldUserId);
-                }
-                if (newUserId != null) {
-                    affectedUserIds.add(newUserId);
-                }
-            }
-        }
-
+    /** Notify the users whose slots changed in this republish (computed from the snapshot delta). */
+    private void notifyAffectedUsersForRepublish(SchedulePeriod sp, Set<Long> affectedUserIds, PublishProgress progress) {
         String range = sp.getStartDate().format(PUBLISH_DATE_FMT) + " to " + sp.getEndDate().format(PUBLISH_DATE_FMT);
         String payload = "Your schedule was updated for " + range;
         String smsMessage = "SKT Scheduler: Your schedule was updated for " + range
                 + ". Log in to review: " + publicLoginUrl;
 
-        for (Long userId : affectedUserIds) {
-            AppUser user = appUserRepo.findById(userId).orElse(null);
-            if (user == null || !user.isEnabled()) {
-                continue;
-            }
+        List<AppUser> recipients = new ArrayList<>(appUserRepo.findAllById(affectedUserIds));
+        recipients.removeIf(user -> !user.isEnabled());
+        progress.recipients(recipients.size());
 
-            notificationDeliveryService.notifyInAppAndSms(
-                    user,
-                    NotificationType.SCHEDULE_UPDATED,
-                    payload,
-                    smsMessage
-            );
-        }
+        fanOut(recipients, NotificationType.SCHEDULE_UPDATED, payload, smsMessage, progress);
+    }
+
+    /** One insert for the in-app rows, one for the outbox; the dispatcher sends the texts after commit. */
+    private void fanOut(Collection<AppUser> recipients, NotificationType type, String payload,
+                        String smsMessage, PublishProgress progress) {
+        var result = notificationDeliveryService.notifyAllInAppAndSms(
+                recipients, type, payload, smsMessage, progress.jobId());
+        progress.notificationsSent(result.notified());
+        progress.smsQueued(result.smsOnJob());
     }
 
     @Override
     @Transactional(readOnly = true)
     public boolean needsRepublish(Long schedulePeriodId) {
         var sp = periodRepo.findById(schedulePeriodId).orElseThrow();
-
-        // If nothing was ever snapshotted, and the period is POSTED, it needs republish once.
-        if ("POSTED".equalsIgnoreCase(sp.getStatus()) &&
-                publishedRepo.countBySchedulePeriod_Id(sp.getId()) == 0) {
-            return true;
-        }
-
-        var start = sp.getStartDate();
-        var end   = sp.getEndDate();
-
-        // Build current map: key -> userId (nullable allowed)
-        record Key(LocalDate d, String per, String pos) {}
-        Map<Key, Long> current = new HashMap<>();
-        // load all shifts in window
-        var shifts = shiftRepo.findByDateBetween(start, end);
-        for (var s : shifts) {
-            var aOpt = assignmentRepo.findByShift(s);
-            Long uid = aOpt.map(a -> a.getEmployee() != null ? a.getEmployee().getId() : null).orElse(null);
-            var k = new Key(s.getDate(), s.getPeriod().name(), s.getPosition().name());
-            current.put(k, uid);
-        }
-
-        // Build published map
-        Map<Key, Long> snap = new HashMap<>();
-        var rows = publishedRepo.findBySchedulePeriod_IdAndDateBetween(sp.getId(), start, end);
-        for (var pa : rows) {
-            var k = new Key(pa.getDate(), pa.getPeriod().name(), pa.getPosition().name());
-            Long uid = pa.getUser() != null ? pa.getUser().getId() : null;
-            snap.put(k, uid);
-        }
-
-        // Compare both directions (detect added/removed/changed)
-        if (current.size() != snap.size()) return true;
-        for (var e : current.entrySet()) {
-            if (!Objects.equals(e.getValue(), snap.get(e.getKey()))) return true;
-        }
-        return false;
+        return "POSTED".equalsIgnoreCase(sp.getStatus()) && sp.isSnapshotStale();
     }
 }
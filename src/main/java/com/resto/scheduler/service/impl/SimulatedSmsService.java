@@ -0,0 +1,134 @@
+package com.resto.scheduler.service.impl;
+
+import com.resto.scheduler.service.SmsDeliveryException;
+import com.resto.scheduler.service.SmsService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Local stand-in for SNS (app.sms.provider=simulated) for offline load tests: sends nothing,
+ * but behaves like a real provider.
+ * - latency: log-normal with the given median and p99 (equal values = fixed latency)
+ * - failure-rate: share of sends failing with a retryable error (provider hiccup)
+ * - error-rate: share of sends rejected permanently (bad number / opted out)
+ * - throttle-tps: sends beyond this many per second get a retryable throttling error
+ * Every attempt is kept in a bounded ring buffer (newest wins) that ManagerSmsController exposes.
+ */
+public class SimulatedSmsService implements SmsService {
+
+    private static final Logger log = LoggerFactory.getLogger(SimulatedSmsService.class);
+
+    // z-score of the 99th percentile of a standard normal
+    private static final double Z_99 = 2.326;
+
+    public record Settings(long latencyMedianMs,
+                           long latencyP99Ms,
+                           double failureRate,
+                           double errorRate,
+                           int throttleTps,
+                           int bufferSize) {}
+
+    /** One send attempt as the simulated provider saw it; outcome is SENT, FAILED, REJECTED or THROTTLED. */
+    public record SentMessage(Instant at, String phoneNumber, String message, String outcome, long latencyMs) {}
+
+    private final Settings settings;
+    private final double sigma;
+
+    private final SentMessage[] ring;
+    private long written;
+
+    private long throttleSecond;
+    private int throttleCount;
+
+    public SimulatedSmsService(Settings settings) {
+        this.settings = settings;
+        long median = Math.max(0, settings.latencyMedianMs());
+        long p99 = Math.max(median, settings.latencyP99Ms());
+        this.sigma = (median > 0 && p99 > median) ? Math.log((double) p99 / median) / Z_99 : 0;
+        this.ring = new SentMessage[Math.max(1, settings.bufferSize())];
+    }
+
+    @Override
+    public void send(String phoneNumber, String message) {
+        long latencyMs = sampleLatencyMs();
+        if (throttled()) {
+            record(phoneNumber, message, "THROTTLED", 0);
+            throw new SmsDeliveryException("Simulated throttling: rate exceeded", true);
+        }
+        if (latencyMs > 0) {
+            try {
+                Thread.sleep(latencyMs);
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                throw new SmsDeliveryException("Simulated SMS send interrupted", true, ex);
+            }
+        }
+
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        if (settings.failureRate() > 0 && random.nextDouble() < settings.failureRate()) {
+            record(phoneNumber, message, "FAILED", latencyMs);
+            throw new SmsDeliveryException("Simulated provider failure", true);
+        }
+        if (settings.errorRate() > 0 && random.nextDouble() < settings.errorRate()) {
+            record(phoneNumber, message, "REJECTED", latencyMs);
+            throw new SmsDeliveryException("Simulated rejection: invalid or opted-out number", false);
+        }
+        record(phoneNumber, message, "SENT", latencyMs);
+        log.debug("Simulated SMS to {} ({}ms): {}", phoneNumber, latencyMs, message);
+    }
+
+    /** Most recent attempts, newest first. */
+    public synchronized List<SentMessage> recent(int limit) {
+        int n = (int) Math.min(Math.min(limit, ring.length), written);
+        List<SentMessage> out = new ArrayList<>(n);
+        for (int i = 1; i <= n; i++) {
+            out.add(ring[(int) ((written - i) % ring.length)]);
+        }
+        return out;
+    }
+
+    /** Attempts recorded since startup or the last clear (including ones already overwritten). */
+    public synchronized long total() {
+        return written;
+    }
+
+    public synchronized void clear() {
+        written = 0;
+        Arrays.fill(ring, null);
+    }
+
+    private synchronized void record(String phoneNumber, String message, String outcome, long latencyMs) {
+        ring[(int) (written % ring.length)] = new SentMessage(Instant.now(), phoneNumber, message, outcome, latencyMs);
+        written++;
+    }
+
+    // Fixed one-second window, like a per-second account quota
+    private synchronized boolean throttled() {
+        if (settings.throttleTps() <= 0) {
+            return false;
+        }
+        long second = System.currentTimeMillis() / 1000;
+        if (second != throttleSecond) {
+            throttleSecond = second;
+            throttleCount = 0;
+        }
+        return ++throttleCount > settings.throttleTps();
+    }
+
+    private long sampleLatencyMs() {
+        long median = settings.latencyMedianMs();
+        if (median <= 0) {
+            return 0;
+        }
+        if (sigma == 0) {
+            return median;
+        }
+        return Math.round(median * Math.exp(sigma * ThreadLocalRandom.current().nextGaussian()));
+    }
+}
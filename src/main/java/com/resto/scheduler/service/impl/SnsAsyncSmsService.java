@@ -0,0 +1,61 @@
+package com.resto.scheduler.service.impl;
+
+import com.resto.scheduler.service.SmsService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import software.amazon.awssdk.services.sns.SnsAsyncClient;
+import software.amazon.awssdk.services.sns.model.PublishRequest;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+
+/**
+ * SNS sender on SnsAsyncClient (app.sms.provider=sns-async).
+ * sendAsync only starts the HTTP call; the future completes on the SDK's I/O threads, so
+ * thousands of sends can be in flight without a platform thread parked on each one.
+ */
+public class SnsAsyncSmsService implements SmsService {
+
+    private static final Logger log = LoggerFactory.getLogger(SnsAsyncSmsService.class);
+
+    private final SnsAsyncClient snsAsyncClient;
+
+    public SnsAsyncSmsService(SnsAsyncClient snsAsyncClient) {
+        this.snsAsyncClient = snsAsyncClient;
+    }
+
+    @Override
+    public void send(String phoneNumber, String message) {
+        try {
+            sendAsync(phoneNumber, message, Runnable::run).join();
+        } catch (CompletionException ex) {
+            if (ex.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw ex;
+        }
+    }
+
+    @Override
+    public CompletableFuture<Void> sendAsync(String phoneNumber, String message, Executor blockingExecutor) {
+        if (phoneNumber == null || phoneNumber.isBlank()) {
+            log.warn("SMS skipped: missing phone number. Message={}", message);
+            return CompletableFuture.completedFuture(null);
+        }
+
+        PublishRequest request = PublishRequest.builder()
+                .phoneNumber(phoneNumber)
+                .message(message)
+                .build();
+
+        return snsAsyncClient.publish(request).handle((response, ex) -> {
+            if (ex != null) {
+                Throwable cause = ex instanceof CompletionException && ex.getCause() != null ? ex.getCause() : ex;
+                throw SnsErrors.translate(log, phoneNumber, cause);
+            }
+            log.info("SMS sent via AWS SNS (async). MessageId={}, Phone={}", response.messageId(), phoneNumber);
+            return null;
+        });
+    }
+}
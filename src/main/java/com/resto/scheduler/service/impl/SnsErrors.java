@@ -0,0 +1,45 @@
+package com.resto.scheduler.service.impl;
+
+import com.resto.scheduler.service.SmsDeliveryException;
+import org.slf4j.Logger;
+import software.amazon.awssdk.core.exception.SdkClientException;
+import software.amazon.awssdk.services.sns.model.InvalidParameterException;
+import software.amazon.awssdk.services.sns.model.SnsException;
+
+/** Maps SNS client errors to SmsDeliveryException (shared by the blocking and async senders). */
+final class SnsErrors {
+
+    private SnsErrors() {}
+
+    static SmsDeliveryException translate(Logger log, String phoneNumber, Throwable ex) {
+        if (ex instanceof SmsDeliveryException sde) {
+            return sde;
+        }
+        if (ex instanceof InvalidParameterException ipe) {
+            log.error("AWS SNS rejected SMS request for phone {}. Ensure E.164 format like +12065550101. Error={}",
+                    phoneNumber, errorMessage(ipe));
+            return new SmsDeliveryException("SNS rejected the phone number: " + errorMessage(ipe), false, ex);
+        }
+        if (ex instanceof SnsException se) {
+            boolean retryable = isRetryable(se);
+            log.error("AWS SNS failed to send SMS to {} (retryable={}). Error={}", phoneNumber, retryable, errorMessage(se));
+            return new SmsDeliveryException("SNS error " + se.statusCode() + ": " + errorMessage(se), retryable, ex);
+        }
+        if (ex instanceof SdkClientException) {
+            // Network problems and client-side timeouts: SNS never answered
+            log.error("AWS SNS unreachable for SMS to {}. Error={}", phoneNumber, ex.getMessage());
+            return new SmsDeliveryException("SNS unreachable: " + ex.getMessage(), true, ex);
+        }
+        log.error("Unexpected error sending SMS to {}", phoneNumber, ex);
+        return new SmsDeliveryException("SNS send failed: " + ex.getMessage(), true, ex);
+    }
+
+    // Throttling and server-side errors are worth retrying; other 4xx (opt-out, auth, bad request) are not
+    private static boolean isRetryable(SnsException ex) {
+        return ex.isThrottlingException() || ex.statusCode() == 429 || ex.statusCode() >= 500;
+    }
+
+    private static String errorMessage(SnsException ex) {
+        return ex.awsErrorDetails() != null ? ex.awsErrorDetails().errorMessage() : ex.getMessage();
+    }
+}
@@ -3,10 +3,9 @@ package com.resto.scheduler.service.impl;
 import com.resto.scheduler.service.SmsService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import software.amazon.awssdk.core.exception.SdkException;
 import software.amazon.awssdk.services.sns.SnsClient;
-import software.amazon.awssdk.services.sns.model.InvalidParameterException;
 import software.amazon.awssdk.services.sns.model.PublishRequest;
-import software.amazon.awssdk.services.sns.model.SnsException;
 
 public class SnsSmsService implements SmsService {
 
@@ -34,12 +33,8 @@ public class SnsSmsService implements SmsService {
             var response = snsClient.publish(request);
             log.info("SMS sent via AWS SNS. MessageId={}, Phone={}", response.messageId(), phoneNumber);
 
-        } catch (InvalidParameterException ex) {
-            log.error("AWS SNS rejected SMS request for phone {}. Ensure E.164 format like +12065550101. Error={}",
-                    phoneNumber, ex.awsErrorDetails() != null ? ex.awsErrorDetails().errorMessage() : ex.getMessage());
-        } catch (SnsException ex) {
-            log.error("AWS SNS failed to send SMS to {}. Error={}",
-                    phoneNumber, ex.awsErrorDetails() != null ? ex.awsErrorDetails().errorMessage() : ex.getMessage());
+        } catch (SdkException ex) {
+            throw SnsErrors.translate(log, phoneNumber, ex);
         }
     }
-}
\ No newline at end of file
+}
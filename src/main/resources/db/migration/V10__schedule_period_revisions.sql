@@ -0,0 +1,80 @@
+/* ==========================================================
+   V10 — Live/published revision counters on schedule_period
+   live_revision bumps on any assignment write for a date in the period;
+   published_revision is copied from it when the snapshot is taken.
+   needsRepublish = live_revision <> published_revision.
+   ========================================================== */
+
+ALTER TABLE schedule_period
+    ADD COLUMN IF NOT EXISTS live_revision      BIGINT NOT NULL DEFAULT 0,
+    ADD COLUMN IF NOT EXISTS published_revision BIGINT NOT NULL DEFAULT 0;
+
+-- 1) Backfill: POSTED periods whose snapshot already differs from live start out "dirty"
+UPDATE schedule_period sp
+SET live_revision = 1
+WHERE sp.status = 'POSTED'
+  AND EXISTS (
+    (SELECT s.date, s.period, s."position", a.user_id
+     FROM assignment a
+              JOIN shift s ON s.id = a.shift_id
+     WHERE s.date BETWEEN sp.start_date AND sp.end_date
+     EXCEPT
+     SELECT pa.date, pa.period, pa.position, pa.user_id
+     FROM published_assignment pa
+     WHERE pa.schedule_period_id = sp.id)
+    UNION ALL
+    (SELECT pa.date, pa.period, pa.position, pa.user_id
+     FROM published_assignment pa
+     WHERE pa.schedule_period_id = sp.id
+     EXCEPT
+     SELECT s.date, s.period, s."position", a.user_id
+     FROM assignment a
+              JOIN shift s ON s.id = a.shift_id
+     WHERE s.date BETWEEN sp.start_date AND sp.end_date)
+);
+
+-- 2) Statement-level triggers: one UPDATE per statement, however many rows it touched
+CREATE OR REPLACE FUNCTION fn_bump_live_revision()
+RETURNS TRIGGER AS $$
+BEGIN
+  IF TG_OP = 'INSERT' THEN
+UPDATE schedule_period sp
+SET live_revision = sp.live_revision + 1
+WHERE EXISTS (SELECT 1 FROM new_rows n JOIN shift s ON s.id = n.shift_id
+              WHERE s.date BETWEEN sp.start_date AND sp.end_date);
+ELSIF TG_OP = 'DELETE' THEN
+UPDATE schedule_period sp
+SET live_revision = sp.live_revision + 1
+WHERE EXISTS (SELECT 1 FROM old_rows o JOIN shift s ON s.id = o.shift_id
+              WHERE s.date BETWEEN sp.start_date AND sp.end_date);
+ELSE
+UPDATE schedule_period sp
+SET live_revision = sp.live_revision + 1
+WHERE EXISTS (SELECT 1 FROM (SELECT shift_id FROM new_rows UNION SELECT shift_id FROM old_rows) r
+                                JOIN shift s ON s.id = r.shift_id
+              WHERE s.date BETWEEN sp.start_date AND sp.end_date);
+END IF;
+RETURN NULL;
+END
+$$ LANGUAGE plpgsql;
+
+DROP TRIGGER IF EXISTS trg_assignment_revision_insert ON assignment;
+CREATE TRIGGER trg_assignment_revision_insert
+    AFTER INSERT ON assignment
+    REFERENCING NEW TABLE AS new_rows
+    FOR EACH STATEMENT
+    EXECUTE FUNCTION fn_bump_live_revision();
+
+DROP TRIGGER IF EXISTS trg_assignment_revision_update ON assignment;
+CREATE TRIGGER trg_assignment_revision_update
+    AFTER UPDATE ON assignment
+    REFERENCING OLD TABLE AS old_rows NEW TABLE AS new_rows
+    FOR EACH STATEMENT
+    EXECUTE FUNCTION fn_bump_live_revision();
+
+DROP TRIGGER IF EXISTS trg_assignment_revision_delete ON assignment;
+CREATE TRIGGER trg_assignment_revision_delete
+    AFTER DELETE ON assignment
+    REFERENCING OLD TABLE AS old_rows
+    FOR EACH STATEMENT
+    EXECUTE FUNCTION fn_bump_live_revision();
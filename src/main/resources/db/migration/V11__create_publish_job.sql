@@ -0,0 +1,32 @@
+-- Background publish/republish jobs: the POST enqueues, a worker snapshots + notifies
+-- and records progress here so the publish page can show it. The snapshot result is stored
+-- with the snapshot and notified_at with the notifications, so a reclaimed job resumes from
+-- whichever step is missing instead of re-snapshotting (which would find nothing changed).
+CREATE TABLE IF NOT EXISTS publish_job (
+                                           id                   BIGSERIAL PRIMARY KEY,
+                                           schedule_period_id   BIGINT NOT NULL REFERENCES schedule_period(id) ON DELETE CASCADE,
+    kind                 VARCHAR(16) NOT NULL,                 -- POST | REPUBLISH
+    status               VARCHAR(16) NOT NULL DEFAULT 'QUEUED', -- QUEUED | RUNNING | DONE | FAILED
+    requested_by_user_id BIGINT REFERENCES app_user(id) ON DELETE SET NULL,
+    attempts             INTEGER NOT NULL DEFAULT 0,
+    rows_written         INTEGER NOT NULL DEFAULT 0,
+    recipients           INTEGER NOT NULL DEFAULT 0,
+    notifications_sent   INTEGER NOT NULL DEFAULT 0,
+    sms_queued           INTEGER NOT NULL DEFAULT 0,           -- pending SMS = queued - sent - failed
+    sms_sent             INTEGER NOT NULL DEFAULT 0,
+    sms_failed           INTEGER NOT NULL DEFAULT 0,
+    first_publish        BOOLEAN NOT NULL DEFAULT FALSE,
+    affected_user_ids    BIGINT[],
+    error                VARCHAR(1000),
+    created_at           TIMESTAMPTZ NOT NULL DEFAULT NOW(),
+    started_at           TIMESTAMPTZ,
+    heartbeat_at         TIMESTAMPTZ,
+    snapshot_at          TIMESTAMPTZ,
+    notified_at          TIMESTAMPTZ,
+    finished_at          TIMESTAMPTZ,
+    CONSTRAINT ck_publish_job_status CHECK (status IN ('QUEUED','RUNNING','DONE','FAILED'))
+    );
+
+CREATE INDEX IF NOT EXISTS idx_publish_job_period ON publish_job(schedule_period_id, id DESC);
+-- Worker claim scans only unfinished jobs
+CREATE INDEX IF NOT EXISTS idx_publish_job_open ON publish_job(id) WHERE status IN ('QUEUED','RUNNING');
@@ -0,0 +1,52 @@
+/* ==========================================================
+   V12 — Immutable publish history
+   Every publish of a period adds a published_version row. Its slots are either a
+   full checkpoint (every CHECKPOINT_EVERY versions, and version 1) or only the
+   slots that changed since the previous version; removed = true marks a slot
+   that disappeared. checkpoint_version points at the checkpoint a version is
+   rebuilt from, so reading any version touches at most one checkpoint + its deltas.
+   Slots keep user_id as a plain historical id (no foreign key, so deleting a user
+   does not rewrite history) plus the employee's name at publish time.
+   ========================================================== */
+
+CREATE TABLE IF NOT EXISTS published_version (
+                                                 id                  BIGSERIAL PRIMARY KEY,
+                                                 schedule_period_id  BIGINT NOT NULL REFERENCES schedule_period(id) ON DELETE CASCADE,
+    version             INTEGER NOT NULL,
+    checkpoint_version  INTEGER NOT NULL,
+    is_checkpoint       BOOLEAN NOT NULL,
+    changed_slots       INTEGER NOT NULL DEFAULT 0,
+    published_at        TIMESTAMPTZ NOT NULL DEFAULT NOW(),
+
+    CONSTRAINT uq_published_version UNIQUE (schedule_period_id, version)
+    );
+
+CREATE TABLE IF NOT EXISTS published_version_slot (
+                                                      version_id  BIGINT NOT NULL REFERENCES published_version(id) ON DELETE CASCADE,
+    date        DATE   NOT NULL,
+    period      VARCHAR(16) NOT NULL,
+    position    VARCHAR(32) NOT NULL,
+    user_id     BIGINT,
+    employee_name VARCHAR(255),
+    removed     BOOLEAN NOT NULL DEFAULT FALSE,
+
+    PRIMARY KEY (version_id, date, period, position)
+    );
+
+-- Existing POSTED periods: their current snapshot becomes version 1 (a checkpoint)
+INSERT INTO published_version (schedule_period_id, version, checkpoint_version, is_checkpoint, changed_slots, published_at)
+SELECT sp.id, 1, 1, TRUE,
+       (SELECT count(*) FROM published_assignment pa WHERE pa.schedule_period_id = sp.id),
+       COALESCE(sp.posted_at, NOW())
+FROM schedule_period sp
+WHERE sp.status = 'POSTED'
+  AND EXISTS (SELECT 1 FROM published_assignment pa WHERE pa.schedule_period_id = sp.id)
+ON CONFLICT ON CONSTRAINT uq_published_version DO NOTHING;
+
+INSERT INTO published_version_slot (version_id, date, period, position, user_id, employee_name)
+SELECT pv.id, pa.date, pa.period, pa.position, pa.user_id, u.full_name
+FROM published_version pv
+         JOIN published_assignment pa ON pa.schedule_period_id = pv.schedule_period_id
+         LEFT JOIN app_user u ON u.id = pa.user_id
+WHERE pv.version = 1
+ON CONFLICT DO NOTHING;
@@ -0,0 +1,20 @@
+-- Transactional SMS outbox: rows are written in the same transaction as the in-app
+-- notification and sent by SmsOutboxDispatcher after commit (FOR UPDATE SKIP LOCKED).
+CREATE TABLE IF NOT EXISTS sms_outbox (
+                                          id              BIGSERIAL PRIMARY KEY,
+                                          recipient_id    BIGINT REFERENCES app_user(id) ON DELETE SET NULL,
+    phone_number    VARCHAR(20)   NOT NULL,
+    message         VARCHAR(1600) NOT NULL,
+    status          VARCHAR(16)   NOT NULL DEFAULT 'PENDING', -- PENDING | SENDING | SENT | FAILED
+    attempts        INTEGER       NOT NULL DEFAULT 0,
+    publish_job_id  BIGINT REFERENCES publish_job(id) ON DELETE SET NULL,
+    last_error      VARCHAR(1000),
+    created_at      TIMESTAMPTZ   NOT NULL DEFAULT NOW(),
+    claimed_at      TIMESTAMPTZ,
+    sent_at         TIMESTAMPTZ,
+    CONSTRAINT ck_sms_outbox_status CHECK (status IN ('PENDING','SENDING','SENT','FAILED'))
+    );
+
+-- Dispatcher claim scans only unsent rows
+CREATE INDEX IF NOT EXISTS idx_sms_outbox_open ON sms_outbox(id) WHERE status IN ('PENDING','SENDING');
+CREATE INDEX IF NOT EXISTS idx_sms_outbox_created ON sms_outbox(created_at);
@@ -0,0 +1,36 @@
+/* ==========================================================
+   V14 — SMS retries and dead letters
+   Retryable failures go back to PENDING with next_attempt_at pushed out
+   (exponential backoff with jitter); messages that fail permanently or run
+   out of attempts are moved to sms_dead_letter.
+   ========================================================== */
+
+ALTER TABLE sms_outbox
+    ADD COLUMN IF NOT EXISTS next_attempt_at TIMESTAMPTZ NOT NULL DEFAULT NOW();
+
+DROP INDEX IF EXISTS idx_sms_outbox_open;
+CREATE INDEX IF NOT EXISTS idx_sms_outbox_due ON sms_outbox(next_attempt_at) WHERE status = 'PENDING';
+CREATE INDEX IF NOT EXISTS idx_sms_outbox_sending ON sms_outbox(claimed_at) WHERE status = 'SENDING';
+
+CREATE TABLE IF NOT EXISTS sms_dead_letter (
+                                               id              BIGSERIAL PRIMARY KEY,
+                                               outbox_id       BIGINT        NOT NULL,
+                                               recipient_id    BIGINT REFERENCES app_user(id) ON DELETE SET NULL,
+    phone_number    VARCHAR(20)   NOT NULL,
+    message         VARCHAR(1600) NOT NULL,
+    attempts        INTEGER       NOT NULL,
+    publish_job_id  BIGINT REFERENCES publish_job(id) ON DELETE SET NULL,
+    last_error      VARCHAR(1000),
+    queued_at       TIMESTAMPTZ   NOT NULL,
+    failed_at       TIMESTAMPTZ   NOT NULL DEFAULT NOW()
+    );
+
+CREATE INDEX IF NOT EXISTS idx_sms_dead_letter_failed ON sms_dead_letter(failed_at);
+
+-- Rows that already failed under the old dispatcher (no retries) become dead letters
+WITH moved AS (
+    DELETE FROM sms_outbox WHERE status = 'FAILED'
+    RETURNING id, recipient_id, phone_number, message, attempts, publish_job_id, last_error, created_at
+)
+INSERT INTO sms_dead_letter (outbox_id, recipient_id, phone_number, message, attempts, publish_job_id, last_error, queued_at)
+SELECT id, recipient_id, phone_number, message, attempts, publish_job_id, last_error, created_at FROM moved;
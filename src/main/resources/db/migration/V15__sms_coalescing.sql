@@ -0,0 +1,17 @@
+/* ==========================================================
+   V15 — Per-phone SMS coalescing
+   A new text is held for the coalescing window (next_attempt_at in the future).
+   While it is held (coalescing = true) further texts to the same phone are merged
+   into it instead of becoming new rows; the dispatcher clears the flag when it
+   claims the row, so later texts start a new digest. queued_by is the node that
+   opened the digest, so a node shutting down flushes only its own.
+   ========================================================== */
+
+ALTER TABLE sms_outbox
+    ADD COLUMN IF NOT EXISTS coalescing     BOOLEAN NOT NULL DEFAULT FALSE,
+    ADD COLUMN IF NOT EXISTS merged_count   INTEGER NOT NULL DEFAULT 1,
+    ADD COLUMN IF NOT EXISTS overflow_count INTEGER NOT NULL DEFAULT 0,
+    ADD COLUMN IF NOT EXISTS queued_by      VARCHAR(36);
+
+-- At most one open digest per phone; also the ON CONFLICT target for merging
+CREATE UNIQUE INDEX IF NOT EXISTS uq_sms_outbox_coalescing ON sms_outbox(phone_number) WHERE coalescing;
@@ -0,0 +1,87 @@
+package com.resto.scheduler.service;
+
+import com.resto.scheduler.model.AppUser;
+import com.resto.scheduler.model.enums.Position;
+import com.resto.scheduler.repository.AppUserRepository;
+import com.resto.scheduler.repository.AssignmentRepository;
+import com.resto.scheduler.repository.AssignmentRepository.SlotHolder;
+import com.resto.scheduler.repository.RequestRepository;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class CandidateIndexTest {
+
+    private static final LocalDate DATE = LocalDate.of(2025, 3, 3);
+
+    private final AssignmentRepository assignmentRepo = mock(AssignmentRepository.class);
+    private final AppUserRepository userRepo = mock(AppUserRepository.class);
+    private final CandidateIndex index = new CandidateIndex(assignmentRepo, userRepo, mock(RequestRepository.class));
+
+    @Test
+    void loadOverlappingAnEditReturnsWhatItReadWithoutCachingIt() {
+        // The edit commits while the first load is reading
+        when(assignmentRepo.findSlotHoldersByDateBetween(DATE, DATE))
+                .thenAnswer(inv -> {
+                    index.onAssignmentsChanged(AssignmentsChangedEvent.of(DATE));
+                    return List.of(holder(7L));
+                })
+                .thenReturn(List.of(holder(8L)));
+
+        assertThat(index.day(DATE)[Position.SERVER_1.ordinal()]).isEqualTo(7L);
+        assertThat(index.day(DATE)[Position.SERVER_1.ordinal()]).isEqualTo(8L);
+        assertThat(index.day(DATE)[Position.SERVER_1.ordinal()]).isEqualTo(8L);
+        verify(assignmentRepo, times(2)).findSlotHoldersByDateBetween(DATE, DATE);
+    }
+
+    @Test
+    void rangeCoversEveryDate() {
+        when(assignmentRepo.findSlotHoldersByDateBetween(DATE, DATE.plusDays(2))).thenReturn(List.of(holder(7L)));
+
+        var window = index.range(DATE, DATE.plusDays(2));
+
+        assertThat(window).hasSize(3);
+        assertThat(window.get(DATE)[Position.SERVER_1.ordinal()]).isEqualTo(7L);
+        assertThat(window.get(DATE.plusDays(2))).containsOnly(0L);
+    }
+
+    @Test
+    void rosterLoadOverlappingAUserChangeIsNotCached() {
+        AppUser before = user(1L);
+        AppUser after = user(2L);
+        when(userRepo.findByRoles_Name("MANAGER"))
+                .thenAnswer(inv -> {
+                    index.invalidateRoster();
+                    return List.of(before);
+                })
+                .thenReturn(List.of(after));
+        when(userRepo.findByRoles_Name("EMPLOYEE")).thenReturn(List.of());
+
+        assertThat(index.roster()).extracting(CandidateIndex.StaffMember::id).containsExactly(1L);
+        assertThat(index.roster()).extracting(CandidateIndex.StaffMember::id).containsExactly(2L);
+        assertThat(index.roster()).extracting(CandidateIndex.StaffMember::id).containsExactly(2L);
+        verify(userRepo, times(2)).findByRoles_Name("MANAGER");
+    }
+
+    private static SlotHolder holder(long userId) {
+        SlotHolder h = mock(SlotHolder.class);
+        when(h.getDate()).thenReturn(DATE);
+        when(h.getPosition()).thenReturn(Position.SERVER_1);
+        when(h.getUserId()).thenReturn(userId);
+        return h;
+    }
+
+    private static AppUser user(long id) {
+        AppUser u = new AppUser();
+        u.setId(id);
+        u.setUsername("user" + id);
+        return u;
+    }
+}
@@ -0,0 +1,172 @@
+package com.resto.scheduler.service;
+
+import com.resto.scheduler.model.AppUser;
+import com.resto.scheduler.model.Assignment;
+import com.resto.scheduler.model.Role;
+import com.resto.scheduler.model.Shift;
+import com.resto.scheduler.model.enums.Position;
+import com.resto.scheduler.repository.AppUserRepository;
+import com.resto.scheduler.repository.AssignmentRepository;
+import com.resto.scheduler.repository.ShiftRepository;
+import com.resto.scheduler.service.ScheduleRoles.RoleOption;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.clearInvocations;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.mockingDetails;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+/**
+ * Statement count of DayScheduleWriter#saveDay.
+ * Every repository and JdbcTemplate call is one round trip to the database, so counting the
+ * calls on those mocks counts statements. The count must not depend on how many roles change.
+ */
+class DayScheduleWriterTest {
+
+    private static final LocalDate DATE = LocalDate.of(2025, 3, 4); // a Tuesday
+    private static final List<RoleOption> ALL_ROLES =
+            Stream.concat(ScheduleRoles.LUNCH.stream(), ScheduleRoles.DINNER.stream()).toList();
+
+    private final AppUserRepository userRepo = mock(AppUserRepository.class);
+    private final ShiftRepository shiftRepo = mock(ShiftRepository.class);
+    private final AssignmentRepository assignmentRepo = mock(AssignmentRepository.class);
+    private final JdbcTemplate jdbc = mock(JdbcTemplate.class);
+    private final ApplicationEventPublisher events = mock(ApplicationEventPublisher.class);
+
+    private final List<AppUser> users = new ArrayList<>();
+    private final List<Shift> shifts = new ArrayList<>();
+    private DayScheduleWriter writer;
+
+    @BeforeEach
+    void setUp() {
+        users.add(user(1L, "mgr", "MANAGER"));
+        for (long id = 2; id <= 30; id++) {
+            users.add(user(id, "emp" + id, "EMPLOYEE"));
+        }
+        long shiftId = 100;
+        for (RoleOption ro : ALL_ROLES) {
+            Shift s = new Shift();
+            s.setId(shiftId++);
+            s.setDate(DATE);
+            s.setPeriod(ro.period());
+            s.setPosition(ro.position());
+            shifts.add(s);
+        }
+        when(userRepo.findByUsernameIn(any())).thenReturn(users);
+        writer = new DayScheduleWriter(userRepo, shiftRepo, assignmentRepo, jdbc, events);
+    }
+
+    @Test
+    void fullDayOnEmptyDateUsesSixStatements() {
+        // No shift rows yet: one load, one batched insert, one reload
+        when(shiftRepo.findByDate(DATE)).thenReturn(List.of(), shifts);
+        when(assignmentRepo.findWithShiftAndEmployeeByDateBetween(DATE, DATE)).thenReturn(List.of());
+
+        writer.saveDay(DATE, selections(ALL_ROLES, 2), null, false, "mgr");
+
+        // users, shifts, insert shifts, shifts again, assignments, insert assignments
+        assertThat(statements()).isEqualTo(6);
+        verify(jdbc).batchUpdate(argThat((String sql) -> sql.startsWith("insert into assignment")),
+                argThat((List<Object[]> rows) -> rows.size() == ALL_ROLES.size()));
+    }
+
+    @Test
+    void overrideOfPostedDayUsesSevenStatements() {
+        when(shiftRepo.findByDate(DATE)).thenReturn(shifts);
+        // Every slot but the last is filled; the edit clears one, moves the rest and fills the last
+        List<Assignment> current = new ArrayList<>();
+        for (int i = 0; i < shifts.size() - 1; i++) {
+            current.add(assignment(500L + i, shifts.get(i), users.get(i + 1)));
+        }
+        when(assignmentRepo.findWithShiftAndEmployeeByDateBetween(DATE, DATE)).thenReturn(current);
+
+        Map<String, String> form = selections(ALL_ROLES, 15);
+        form.put(ALL_ROLES.get(1).key(), "");
+        writer.saveDay(DATE, form, 7L, true, "mgr");
+
+        // users, shifts, assignments, deletes, updates, inserts, amendment upserts
+        assertThat(statements()).isEqualTo(7);
+    }
+
+    @Test
+    void statementCountDoesNotGrowWithRoles() {
+        when(shiftRepo.findByDate(DATE)).thenReturn(shifts);
+        when(assignmentRepo.findWithShiftAndEmployeeByDateBetween(DATE, DATE)).thenReturn(List.of());
+
+        writer.saveDay(DATE, selections(ALL_ROLES.subList(3, 4), 2), null, false, "mgr");
+        int oneRole = statements();
+
+        clearInvocations(userRepo, shiftRepo, assignmentRepo, jdbc);
+        writer.saveDay(DATE, selections(ALL_ROLES.subList(3, ALL_ROLES.size()), 2), null, false, "mgr");
+        int tenRoles = statements();
+
+        assertThat(tenRoles).isEqualTo(oneRole).isEqualTo(4);
+    }
+
+    @Test
+    void unchangedDayWritesNothing() {
+        when(shiftRepo.findByDate(DATE)).thenReturn(shifts);
+        Shift expo = shifts.get(ALL_ROLES.indexOf(ScheduleRoles.byKey("role_DINNER_EXPO")));
+        when(assignmentRepo.findWithShiftAndEmployeeByDateBetween(DATE, DATE))
+                .thenReturn(List.of(assignment(900L, expo, users.get(4))));
+
+        writer.saveDay(DATE, Map.of("role_DINNER_EXPO", users.get(4).getUsername()), null, false, null);
+
+        assertThat(statements()).isEqualTo(3);
+        verify(jdbc, never()).batchUpdate(any(String.class), anyList());
+        verifyNoInteractions(events);
+    }
+
+    // Round trips issued so far (stubbing calls are not recorded as invocations)
+    private int statements() {
+        return Stream.of(userRepo, shiftRepo, assignmentRepo, jdbc)
+                .mapToInt(m -> mockingDetails(m).getInvocations().size())
+                .sum();
+    }
+
+    // role_* form params, assigning employees starting at firstUser (lunch manager gets "mgr")
+    private Map<String, String> selections(List<RoleOption> roles, int firstUser) {
+        Map<String, String> form = new LinkedHashMap<>();
+        int next = firstUser;
+        for (RoleOption ro : roles) {
+            boolean manager = ro.position() == Position.LUNCH_MANAGER;
+            form.put(ro.key(), manager ? "mgr" : "emp" + next++);
+        }
+        return form;
+    }
+
+    private static AppUser user(long id, String username, String role) {
+        AppUser u = new AppUser();
+        u.setId(id);
+        u.setUsername(username);
+        u.setFullName(username);
+        u.setRoles(Set.of(new Role(role)));
+        return u;
+    }
+
+    private static Assignment assignment(long id, Shift shift, AppUser employee) {
+        Assignment a = new Assignment();
+        a.setId(id);
+        a.setShift(shift);
+        a.setEmployee(employee);
+        return a;
+    }
+}
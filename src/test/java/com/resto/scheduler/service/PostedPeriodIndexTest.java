@@ -0,0 +1,78 @@
+package com.resto.scheduler.service;
+
+import com.resto.scheduler.model.SchedulePeriod;
+import com.resto.scheduler.repository.SchedulePeriodRepository;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class PostedPeriodIndexTest {
+
+    private static final LocalDate START = LocalDate.of(2025, 3, 3);
+
+    private final SchedulePeriodRepository repo = mock(SchedulePeriodRepository.class);
+    private final PostedPeriodIndex index = new PostedPeriodIndex(repo);
+
+    @Test
+    void servesFromMemoryUntilInvalidated() {
+        List<SchedulePeriod> posted = List.of(period(1L));
+        when(repo.findAllPostedOrderByStartDate()).thenReturn(List.of(), posted);
+
+        assertThat(index.isLocked(START)).isFalse();
+        assertThat(index.isLocked(START.plusDays(3))).isFalse();
+        verify(repo, times(1)).findAllPostedOrderByStartDate();
+
+        index.invalidate();
+
+        assertThat(index.isLocked(START)).isTrue();
+        verify(repo, times(2)).findAllPostedOrderByStartDate();
+    }
+
+    @Test
+    void loadOverlappingAPostIsNotServedAfterIt() {
+        List<SchedulePeriod> posted = List.of(period(1L));
+        // The first load reads the table, then the post commits and invalidates before it returns
+        when(repo.findAllPostedOrderByStartDate())
+                .thenAnswer(inv -> {
+                    index.invalidate();
+                    return List.of();
+                })
+                .thenReturn(posted);
+
+        index.isLocked(START);
+
+        assertThat(index.isLocked(START)).isTrue();
+    }
+
+    @Test
+    void refreshOverlappingAPostDoesNotOverwriteIt() {
+        List<SchedulePeriod> posted = List.of(period(1L));
+        when(repo.findAllPostedOrderByStartDate())
+                .thenReturn(List.of())
+                .thenAnswer(inv -> {
+                    index.invalidate();
+                    return List.of();
+                })
+                .thenReturn(posted);
+
+        index.isLocked(START); // loads (empty)
+        index.refresh();       // stale read, a post lands mid-way
+
+        assertThat(index.isLocked(START)).isTrue();
+    }
+
+    private static SchedulePeriod period(long id) {
+        SchedulePeriod p = mock(SchedulePeriod.class);
+        when(p.getId()).thenReturn(id);
+        when(p.getStartDate()).thenReturn(START);
+        when(p.getEndDate()).thenReturn(START.plusDays(13));
+        return p;
+    }
+}
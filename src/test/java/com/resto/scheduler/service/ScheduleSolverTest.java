@@ -0,0 +1,111 @@
+package com.resto.scheduler.service;
+
+import com.resto.scheduler.service.ScheduleSolver.Problem;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static com.resto.scheduler.service.ScheduleSolver.BLOCKED;
+import static com.resto.scheduler.service.ScheduleSolver.EMPTY;
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ScheduleSolverTest {
+
+    private static final int DAYS = 14;
+    private static final int PERIODS = 2;
+    // Same layout as the day page: 3 lunch slots (the last manager-only), 10 dinner slots
+    private static final int[] SLOT_PERIOD = {0, 0, 0, 1, 1, 1, 1, 1, 1, 1, 1, 1, 1};
+    private static final int MANAGER_SLOT = 2;
+
+    @Test
+    void blockedSlotIsKeptAndDoesNotUseAnyone() {
+        // One person, two slots in the same period, the first held by someone outside the staff list
+        Problem p = new Problem(1,
+                new boolean[]{false},
+                new boolean[]{true},
+                new int[]{0, 0},
+                new boolean[]{false, false},
+                new boolean[][]{{true}},
+                new int[][]{{BLOCKED, EMPTY}},
+                1);
+
+        int[][] result = ScheduleSolver.solve(p);
+
+        assertThat(result[0]).containsExactly(BLOCKED, 0);
+    }
+
+    @Test
+    void respectsHardConstraints() {
+        Problem p = problem(200, 12, new Random(42));
+
+        int[][] result = ScheduleSolver.solve(p);
+
+        for (int d = 0; d < DAYS; d++) {
+            boolean[] busy = new boolean[p.staffCount() * PERIODS];
+            for (int s = 0; s < SLOT_PERIOD.length; s++) {
+                int who = result[d][s];
+                if (p.prefilled()[d][s] != EMPTY) {
+                    assertThat(who).isEqualTo(p.prefilled()[d][s]);
+                }
+                if (!p.openDay()[d]) {
+                    assertThat(who).isEqualTo(p.prefilled()[d][s]);
+                }
+                if (who < 0) continue;
+                int period = SLOT_PERIOD[s];
+                assertThat(p.eligible()[d * PERIODS + period][who]).isTrue();
+                assertThat(busy[who * PERIODS + period]).as("day %d slot %d double-booked", d, s).isFalse();
+                busy[who * PERIODS + period] = true;
+                if (s == MANAGER_SLOT) {
+                    assertThat(p.manager()[who]).isTrue();
+                }
+            }
+        }
+    }
+
+    @Test
+    void twoHundredStaffForTwoWeeksSolvesUnder100ms() {
+        Problem p = problem(200, 12, new Random(7));
+        for (int i = 0; i < 50; i++) {
+            ScheduleSolver.solve(p); // warm up the JIT
+        }
+
+        long[] nanos = new long[21];
+        for (int i = 0; i < nanos.length; i++) {
+            long t0 = System.nanoTime();
+            ScheduleSolver.solve(p);
+            nanos[i] = System.nanoTime() - t0;
+        }
+        Arrays.sort(nanos);
+
+        long medianMs = nanos[nanos.length / 2] / 1_000_000;
+        assertThat(medianMs).as("median solve time (ms)").isLessThan(100);
+    }
+
+    // Open Tue-Sat, ~70% availability, some manual and some blocked cells already in place
+    private static Problem problem(int staff, int managers, Random rnd) {
+        boolean[] manager = new boolean[staff];
+        for (int i = 0; i < managers; i++) manager[i * (staff / managers)] = true;
+
+        boolean[] openDay = new boolean[DAYS];
+        for (int d = 0; d < DAYS; d++) openDay[d] = d % 7 >= 2;
+
+        boolean[][] eligible = new boolean[DAYS * PERIODS][staff];
+        for (boolean[] row : eligible) {
+            for (int c = 0; c < staff; c++) row[c] = rnd.nextInt(10) < 7;
+        }
+
+        int[][] prefilled = new int[DAYS][SLOT_PERIOD.length];
+        for (int[] row : prefilled) Arrays.fill(row, EMPTY);
+        for (int d = 2; d < DAYS; d += 3) {
+            int who = 1 + rnd.nextInt(staff - 1);
+            eligible[d * PERIODS + SLOT_PERIOD[5]][who] = true;
+            prefilled[d][5] = who;
+            prefilled[d][8] = BLOCKED;
+        }
+
+        boolean[] managerOnly = new boolean[SLOT_PERIOD.length];
+        managerOnly[MANAGER_SLOT] = true;
+        return new Problem(staff, manager, openDay, SLOT_PERIOD, managerOnly, eligible, prefilled, PERIODS);
+    }
+}
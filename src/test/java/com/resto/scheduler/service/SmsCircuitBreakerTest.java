@@ -0,0 +1,86 @@
+package com.resto.scheduler.service;
+
+import com.resto.scheduler.service.SmsCircuitBreaker.State;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SmsCircuitBreakerTest {
+
+    private static final long OPEN_MS = 50;
+
+    private final SmsCircuitBreaker breaker = new SmsCircuitBreaker(3, OPEN_MS);
+
+    @Test
+    void opensAfterThresholdConsecutiveFailures() {
+        breaker.onFailure();
+        breaker.onFailure();
+        breaker.onSuccess(); // resets the streak
+        breaker.onFailure();
+        breaker.onFailure();
+        assertThat(breaker.state()).isEqualTo(State.CLOSED);
+        assertThat(breaker.allowRequest()).isTrue();
+
+        breaker.onFailure();
+
+        assertThat(breaker.state()).isEqualTo(State.OPEN);
+        assertThat(breaker.allowRequest()).isFalse();
+        assertThat(breaker.remainingOpenMs()).isBetween(1L, OPEN_MS);
+    }
+
+    @Test
+    void halfOpenLetsOneProbeThrough() throws InterruptedException {
+        open();
+        Thread.sleep(OPEN_MS + 10);
+
+        assertThat(breaker.state()).isEqualTo(State.HALF_OPEN);
+        assertThat(breaker.remainingOpenMs()).isZero();
+        assertThat(breaker.allowRequest()).isTrue();
+        assertThat(breaker.allowRequest()).as("second request while the probe is out").isFalse();
+    }
+
+    @Test
+    void successfulProbeCloses() throws InterruptedException {
+        open();
+        Thread.sleep(OPEN_MS + 10);
+        assertThat(breaker.allowRequest()).isTrue();
+
+        breaker.onSuccess();
+
+        assertThat(breaker.state()).isEqualTo(State.CLOSED);
+        assertThat(breaker.allowRequest()).isTrue();
+        assertThat(breaker.allowRequest()).isTrue();
+    }
+
+    @Test
+    void failedProbeOpensAgainForTheFullWindow() throws InterruptedException {
+        open();
+        Thread.sleep(OPEN_MS + 10);
+        assertThat(breaker.allowRequest()).isTrue();
+
+        breaker.onFailure(); // one failure is enough in HALF_OPEN
+
+        assertThat(breaker.state()).isEqualTo(State.OPEN);
+        assertThat(breaker.allowRequest()).isFalse();
+        assertThat(breaker.remainingOpenMs()).isGreaterThan(OPEN_MS / 2);
+    }
+
+    @Test
+    void permanentRejectionOfTheProbeStillEndsIt() throws InterruptedException {
+        open();
+        Thread.sleep(OPEN_MS + 10);
+        assertThat(breaker.allowRequest()).isTrue();
+
+        breaker.onSuccess(); // how the dispatcher reports a non-retryable outcome
+
+        assertThat(breaker.state()).isEqualTo(State.CLOSED);
+        assertThat(breaker.allowRequest()).isTrue();
+    }
+
+    private void open() {
+        for (int i = 0; i < 3; i++) {
+            breaker.onFailure();
+        }
+        assertThat(breaker.state()).isEqualTo(State.OPEN);
+    }
+}
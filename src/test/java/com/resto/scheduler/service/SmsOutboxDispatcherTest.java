@@ -0,0 +1,267 @@
+package com.resto.scheduler.service;
+
+import com.resto.scheduler.service.impl.SimulatedSmsService;
+import com.resto.scheduler.service.impl.SimulatedSmsService.SentMessage;
+import com.resto.scheduler.service.impl.SimulatedSmsService.Settings;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.invocation.InvocationOnMock;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+
+import java.lang.reflect.Proxy;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.contains;
+import static org.mockito.ArgumentMatchers.startsWith;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * SmsOutboxDispatcher against an in-memory outbox (the JdbcTemplate mock claims from a queue
+ * and records what each batch statement marked), with the simulated provider or a fake that
+ * injects failures.
+ */
+class SmsOutboxDispatcherTest {
+
+    private final JdbcTemplate jdbc = mock(JdbcTemplate.class);
+    private final Deque<long[]> pending = new ArrayDeque<>(); // {id, attempts}
+    private final Set<Long> sent = ConcurrentHashMap.newKeySet();
+    private final List<Object[]> retried = new CopyOnWriteArrayList<>();   // {delayMs, error, id}
+    private final List<Object[]> deferred = new CopyOnWriteArrayList<>();  // {delayMs, id}
+    private final List<Object[]> deadLettered = new CopyOnWriteArrayList<>(); // {id, error}
+    private final List<SmsOutboxDispatcher> dispatchers = new ArrayList<>();
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        when(jdbc.query(contains("set status = 'SENDING'"), any(RowMapper.class), any(Object[].class)))
+                .thenAnswer(inv -> claim(inv.getArgument(1), inv.getArgument(2)));
+        when(jdbc.batchUpdate(startsWith("update sms_outbox set status = 'SENT'"), anyList()))
+                .thenAnswer(inv -> {
+                    List<Object[]> rows = inv.getArgument(1);
+                    rows.forEach(r -> sent.add((Long) r[0]));
+                    return new int[rows.size()];
+                });
+        when(jdbc.batchUpdate(contains("last_error = ?"), anyList())).thenAnswer(inv -> record(retried, inv));
+        when(jdbc.batchUpdate(contains("attempts = attempts - 1"), anyList())).thenAnswer(inv -> record(deferred, inv));
+        when(jdbc.batchUpdate(startsWith("with moved"), anyList())).thenAnswer(inv -> record(deadLettered, inv));
+    }
+
+    @AfterEach
+    void tearDown() {
+        dispatchers.forEach(SmsOutboxDispatcher::shutdown);
+    }
+
+    @Test
+    void sendsEverythingWithinTheProviderQuota() {
+        // The provider throttles past 41 sends in a calendar second; 40/s plus a one-token burst never does
+        SimulatedSmsService provider = new SimulatedSmsService(new Settings(0, 0, 0, 0, 41, 200));
+        queue(60);
+
+        dispatcher(provider, new SmsRateLimiter(40, 1, 1)).drain();
+
+        assertThat(sent).hasSize(60);
+        assertThat(provider.recent(200)).extracting(SentMessage::outcome).containsOnly("SENT");
+    }
+
+    @Test
+    void nodesSharingTheQuotaStayWithinIt() {
+        // Two nodes, each limited to half of 40/s, drain the same outbox concurrently
+        SimulatedSmsService provider = new SimulatedSmsService(new Settings(0, 0, 0, 0, 42, 200));
+        queue(60);
+        SmsOutboxDispatcher a = dispatcher(provider, new SmsRateLimiter(40, 2, 2));
+        SmsOutboxDispatcher b = dispatcher(provider, new SmsRateLimiter(40, 2, 2));
+
+        CompletableFuture.allOf(CompletableFuture.runAsync(a::drain), CompletableFuture.runAsync(b::drain)).join();
+
+        assertThat(sent).hasSize(60);
+        assertThat(provider.recent(200)).extracting(SentMessage::outcome).containsOnly("SENT");
+    }
+
+    @Test
+    void backoffIsFullJitterUnderACappedExponentialCeiling() {
+        SmsOutboxDispatcher d = dispatcher(failing(0), new SmsRateLimiter(1_000, 1_000, 1));
+
+        // base 100 ms, max 1000 ms: ceilings 100, 200, 400, 800, then capped at 1000
+        long[] ceilings = {100, 200, 400, 800, 1_000, 1_000, 1_000};
+        for (int attempt = 1; attempt <= ceilings.length; attempt++) {
+            long ceiling = ceilings[attempt - 1];
+            long min = Long.MAX_VALUE;
+            long max = 0;
+            long sum = 0;
+            for (int i = 0; i < 2_000; i++) {
+                long ms = d.backoffMs(attempt);
+                assertThat(ms).isBetween(0L, ceiling);
+                min = Math.min(min, ms);
+                max = Math.max(max, ms);
+                sum += ms;
+            }
+            // Uniform over [0, ceiling]: spread across the whole range, mean near the middle
+            assertThat(min).as("attempt %d min", attempt).isLessThan(ceiling / 10);
+            assertThat(max).as("attempt %d max", attempt).isGreaterThan(ceiling * 9 / 10);
+            assertThat((double) sum / 2_000).as("attempt %d mean", attempt).isBetween(ceiling * 0.4, ceiling * 0.6);
+        }
+        assertThat(d.backoffMs(60)).isBetween(0L, 1_000L); // no overflow on large attempt counts
+    }
+
+    @Test
+    void retryableFailuresAreRequeuedWithJitteredBackoff() {
+        // Fails the first two sends, then recovers
+        SmsOutboxDispatcher d = dispatcher(failing(2), new SmsRateLimiter(1_000, 1_000, 1));
+        queue(2);
+
+        d.drain();
+
+        assertThat(retried).hasSize(2);
+        for (Object[] row : retried) {
+            assertThat((Long) row[0]).as("first attempt backs off at most base").isBetween(0L, 100L);
+            assertThat((String) row[1]).isEqualTo("injected failure");
+        }
+        assertThat(sent).isEmpty();
+        assertThat(deadLettered).isEmpty();
+    }
+
+    @Test
+    void lastAttemptAndPermanentFailuresAreDeadLettered() {
+        SmsOutboxDispatcher d = dispatcher(failing(1), new SmsRateLimiter(1_000, 1_000, 1));
+        pending.add(new long[]{1, 2}); // claimed as attempt 3 of 3
+
+        d.drain();
+
+        assertThat(deadLettered).extracting(r -> r[0]).containsExactly(1L);
+        assertThat(retried).isEmpty();
+
+        SmsOutboxDispatcher rejecting = dispatcher((phone, message) -> {
+            throw new SmsDeliveryException("opted out", false);
+        }, new SmsRateLimiter(1_000, 1_000, 1));
+        pending.add(new long[]{2, 0});
+
+        rejecting.drain();
+
+        assertThat(deadLettered).extracting(r -> r[0]).containsExactly(1L, 2L);
+    }
+
+    @Test
+    void openBreakerDefersTheRestWithoutUsingAttempts() {
+        // Provider down: the breaker (threshold 5) opens and the drain stops claiming
+        SmsOutboxDispatcher d = dispatcher(failing(Integer.MAX_VALUE), new SmsRateLimiter(1_000, 1_000, 1));
+        queue(30);
+
+        d.drain();
+
+        assertThat(retried.size()).isGreaterThanOrEqualTo(5);
+        assertThat(retried.size() + deferred.size()).as("only the claimed batches were touched").isLessThan(30);
+        for (Object[] row : deferred) {
+            assertThat((Long) row[0]).as("deferred until the breaker may probe").isGreaterThan(0L);
+        }
+        assertThat(sent).isEmpty();
+    }
+
+    @Test
+    void permanentlyRejectedProbeDoesNotWedgeTheBreaker() throws InterruptedException {
+        // One retryable failure opens the breaker; the HALF_OPEN probe is then rejected for good
+        AtomicInteger calls = new AtomicInteger();
+        SmsService provider = (phone, message) -> {
+            switch (calls.incrementAndGet()) {
+                case 1 -> throw new SmsDeliveryException("injected failure", true);
+                case 2 -> throw new SmsDeliveryException("opted out", false);
+                default -> { }
+            }
+        };
+        SmsCircuitBreaker breaker = new SmsCircuitBreaker(1, 50);
+        SmsOutboxDispatcher d = dispatcher(provider, new SmsRateLimiter(1_000, 1_000, 1), breaker);
+
+        pending.add(new long[]{1, 0});
+        d.drain();
+        assertThat(breaker.state()).isEqualTo(SmsCircuitBreaker.State.OPEN);
+
+        Thread.sleep(60);
+        pending.add(new long[]{2, 0});
+        d.drain(); // the probe
+        pending.add(new long[]{3, 0});
+        d.drain();
+
+        assertThat(deadLettered).extracting(r -> r[0]).containsExactly(2L);
+        assertThat(sent).containsExactly(3L);
+        assertThat(deferred).isEmpty();
+        assertThat(breaker.state()).isEqualTo(SmsCircuitBreaker.State.CLOSED);
+    }
+
+    // Throws a retryable error for the first `failures` sends, then succeeds
+    private static SmsService failing(int failures) {
+        AtomicInteger calls = new AtomicInteger();
+        return (phone, message) -> {
+            if (calls.incrementAndGet() <= failures) {
+                throw new SmsDeliveryException("injected failure", true);
+            }
+        };
+    }
+
+    private static int[] record(List<Object[]> into, InvocationOnMock inv) {
+        List<Object[]> rows = inv.getArgument(1);
+        into.addAll(rows);
+        return new int[rows.size()];
+    }
+
+    private SmsOutboxDispatcher dispatcher(SmsService provider, SmsRateLimiter limiter) {
+        return dispatcher(provider, limiter, new SmsCircuitBreaker(5, 30_000));
+    }
+
+    private SmsOutboxDispatcher dispatcher(SmsService provider, SmsRateLimiter limiter, SmsCircuitBreaker breaker) {
+        SmsOutboxDispatcher d = new SmsOutboxDispatcher(jdbc, provider, limiter, new SmsDispatchMetrics(),
+                breaker, 10, 4, 8, 3, 100, 1_000);
+        dispatchers.add(d);
+        return d;
+    }
+
+    private void queue(int count) {
+        for (long id = 1; id <= count; id++) {
+            pending.add(new long[]{id, 0});
+        }
+    }
+
+    // The CLAIM statement: up to limit rows, attempts bumped, mapped like the real result set
+    private synchronized List<Object> claim(RowMapper<?> mapper, int limit) throws SQLException {
+        List<Object> rows = new ArrayList<>();
+        while (rows.size() < limit && !pending.isEmpty()) {
+            long[] row = pending.poll();
+            rows.add(mapper.mapRow(resultSet(Map.of(
+                    "id", row[0],
+                    "phone_number", "+1555010" + String.format("%04d", row[0]),
+                    "message", "SKT Scheduler: A new schedule was published",
+                    "attempts", (int) row[1] + 1)), rows.size()));
+        }
+        return rows;
+    }
+
+    // Column getters by label over one row; absent columns read as SQL NULL
+    private static ResultSet resultSet(Map<String, Object> row) {
+        return (ResultSet) Proxy.newProxyInstance(ResultSet.class.getClassLoader(), new Class<?>[]{ResultSet.class},
+                (proxy, method, args) -> {
+                    Object v = row.get((String) args[0]);
+                    return switch (method.getName()) {
+                        case "getLong" -> v == null ? 0L : ((Number) v).longValue();
+                        case "getInt" -> v == null ? 0 : ((Number) v).intValue();
+                        case "getString" -> (String) v;
+                        case "getObject" -> v;
+                        default -> throw new UnsupportedOperationException(method.getName());
+                    };
+                });
+    }
+}
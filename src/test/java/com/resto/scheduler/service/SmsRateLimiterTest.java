@@ -0,0 +1,53 @@
+package com.resto.scheduler.service;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class SmsRateLimiterTest {
+
+    @Test
+    void burstIsAvailableAtOnce() throws InterruptedException {
+        SmsRateLimiter limiter = new SmsRateLimiter(10, 5, 1);
+
+        long ms = timeMs(limiter, 5);
+
+        assertThat(ms).isLessThan(50);
+    }
+
+    @Test
+    void holdsTheSustainedRate() throws InterruptedException {
+        SmsRateLimiter limiter = new SmsRateLimiter(100, 1, 1);
+
+        // One token up front, then one every 10 ms
+        long ms = timeMs(limiter, 51);
+
+        assertThat(ms).isBetween(490L, 1_500L);
+    }
+
+    @Test
+    void eachNodeTakesItsShareOfTheQuota() throws InterruptedException {
+        // 200/s across 4 nodes: this node gets 50/s and a burst of 1
+        SmsRateLimiter limiter = new SmsRateLimiter(200, 4, 4);
+
+        long ms = timeMs(limiter, 26);
+
+        assertThat(ms).isBetween(490L, 1_500L);
+    }
+
+    @Test
+    void rejectsInvalidSettings() {
+        assertThatThrownBy(() -> new SmsRateLimiter(0, 1, 1)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> new SmsRateLimiter(20, 0, 1)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> new SmsRateLimiter(20, 20, 0)).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private static long timeMs(SmsRateLimiter limiter, int permits) throws InterruptedException {
+        long t0 = System.nanoTime();
+        for (int i = 0; i < permits; i++) {
+            limiter.acquire();
+        }
+        return (System.nanoTime() - t0) / 1_000_000;
+    }
+}
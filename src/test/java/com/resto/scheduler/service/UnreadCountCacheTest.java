@@ -0,0 +1,70 @@
+package com.resto.scheduler.service;
+
+import com.resto.scheduler.repository.NotificationRepository;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class UnreadCountCacheTest {
+
+    private static final Long USER = 7L;
+
+    private final NotificationRepository repo = mock(NotificationRepository.class);
+    private final UnreadCountCache cache = new UnreadCountCache(repo, 60_000);
+
+    @Test
+    void seedsOnceThenServesFromMemory() {
+        when(repo.countByRecipientIdAndReadIsFalse(USER)).thenReturn(3L);
+
+        cache.get(USER);
+        cache.added(List.of(USER));
+        cache.markedRead(USER);
+        cache.added(List.of(USER));
+
+        assertThat(cache.get(USER)).isEqualTo(4);
+        verify(repo, times(1)).countByRecipientIdAndReadIsFalse(USER);
+    }
+
+    @Test
+    void incrementDuringSeedIsNeitherLostNorCountedTwice() {
+        // A notification commits while the count query runs; the query may already have counted it
+        when(repo.countByRecipientIdAndReadIsFalse(USER))
+                .thenAnswer(inv -> {
+                    cache.added(List.of(USER));
+                    return 4L;
+                })
+                .thenReturn(4L);
+
+        assertThat(cache.get(USER)).isEqualTo(4);
+        assertThat(cache.get(USER)).isEqualTo(4); // the uncertain seed was not cached: read again
+        assertThat(cache.get(USER)).isEqualTo(4);
+        verify(repo, times(2)).countByRecipientIdAndReadIsFalse(USER);
+    }
+
+    @Test
+    void seedDoesNotBlockOtherUsers() throws InterruptedException {
+        Long other = 8L;
+        when(repo.countByRecipientIdAndReadIsFalse(other)).thenReturn(1L);
+        Thread[] reader = new Thread[1];
+        when(repo.countByRecipientIdAndReadIsFalse(USER)).thenAnswer(inv -> {
+            reader[0] = new Thread(() -> {
+                cache.get(other);
+                cache.added(List.of(other));
+            });
+            reader[0].start();
+            reader[0].join(1_000);
+            return 3L;
+        });
+
+        cache.get(USER);
+
+        assertThat(reader[0].isAlive()).isFalse();
+        assertThat(cache.get(other)).isEqualTo(2);
+    }
+}
@@ -0,0 +1,196 @@
+package com.resto.scheduler.service.impl;
+
+import com.resto.scheduler.model.SchedulePeriod;
+import com.resto.scheduler.model.enums.Position;
+import com.resto.scheduler.model.enums.ShiftPeriod;
+import com.resto.scheduler.repository.AppUserRepository;
+import com.resto.scheduler.repository.AssignmentRepository;
+import com.resto.scheduler.repository.AssignmentRepository.AssignedSlot;
+import com.resto.scheduler.repository.PublishedAssignmentRepository;
+import com.resto.scheduler.repository.PublishedAssignmentRepository.SnapshotRow;
+import com.resto.scheduler.repository.SchedulePeriodRepository;
+import com.resto.scheduler.service.NotificationDeliveryService;
+import com.resto.scheduler.service.PostedPeriodIndex;
+import com.resto.scheduler.service.PublishService.SnapshotResult;
+import com.resto.scheduler.service.PublishedVersionService;
+import com.resto.scheduler.service.PublishedVersionService.Slot;
+import com.resto.scheduler.service.ScheduleRoles;
+import com.resto.scheduler.service.ScheduleRoles.RoleOption;
+import org.assertj.core.groups.Tuple;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.contains;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.clearInvocations;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * PublishServiceImpl#snapshotPeriod on a four-week period with every slot filled: which
+ * published rows it upserts or deletes, which users it reports as affected, and what it
+ * hands to the version history.
+ */
+class PublishServiceImplTest {
+
+    private static final long PERIOD_ID = 9L;
+    private static final LocalDate START = LocalDate.of(2025, 3, 3);
+    private static final int DAYS = 28;
+    private static final List<RoleOption> ALL_ROLES =
+            Stream.concat(ScheduleRoles.LUNCH.stream(), ScheduleRoles.DINNER.stream()).toList();
+
+    private final SchedulePeriodRepository periodRepo = mock(SchedulePeriodRepository.class);
+    private final AssignmentRepository assignmentRepo = mock(AssignmentRepository.class);
+    private final PublishedAssignmentRepository publishedRepo = mock(PublishedAssignmentRepository.class);
+    private final PublishedVersionService versionService = mock(PublishedVersionService.class);
+    private final JdbcTemplate jdbc = mock(JdbcTemplate.class);
+
+    private final PublishServiceImpl service = new PublishServiceImpl(periodRepo, assignmentRepo, publishedRepo,
+            mock(AppUserRepository.class), mock(NotificationDeliveryService.class), mock(PostedPeriodIndex.class),
+            versionService, jdbc);
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void firstPublishUpsertsEverySlotAndRecordsTheFullGrid() {
+        List<AssignedSlot> live = grid(200);
+        givenPeriod(List.of(), live);
+
+        SnapshotResult result = service.snapshotPeriod(PERIOD_ID);
+
+        assertThat(result.firstPublish()).isTrue();
+        assertThat(result.rowsWritten()).isEqualTo(live.size());
+        assertThat(result.affectedUserIds()).hasSize(200);
+        assertThat(upserted()).containsExactlyInAnyOrderElementsOf(rows(live));
+        verify(jdbc, never()).batchUpdate(contains("delete from"), anyList());
+
+        ArgumentCaptor<List<Slot>> liveSlots = ArgumentCaptor.forClass(List.class);
+        ArgumentCaptor<List<Slot>> changed = ArgumentCaptor.forClass(List.class);
+        ArgumentCaptor<List<Slot>> removed = ArgumentCaptor.forClass(List.class);
+        verify(versionService).recordVersion(eq(PERIOD_ID), liveSlots.capture(), changed.capture(), removed.capture());
+        assertThat(liveSlots.getValue()).hasSize(live.size());
+        assertThat(changed.getValue()).hasSize(live.size());
+        assertThat(removed.getValue()).isEmpty();
+        assertThat(liveSlots.getValue()).extracting(Slot::employeeName).doesNotContainNull();
+    }
+
+    @Test
+    void republishWritesOnlyTheChangedSlots() {
+        List<AssignedSlot> live = grid(200);
+        List<SnapshotRow> published = new ArrayList<>(live.stream().map(a -> (SnapshotRow) a).toList());
+        AssignedSlot first = live.get(0);
+        AssignedSlot sixth = live.get(5);
+        AssignedSlot cleared = live.remove(7);
+        // Two slots were published with someone else; one slot has since been cleared
+        published.set(0, new Row(first.getDate(), first.getPeriod(), first.getPosition(), 999L));
+        published.set(5, new Row(sixth.getDate(), sixth.getPeriod(), sixth.getPosition(), 998L));
+        givenPeriod(published, live);
+
+        SnapshotResult result = service.snapshotPeriod(PERIOD_ID);
+
+        assertThat(result.firstPublish()).isFalse();
+        assertThat(result.rowsWritten()).isEqualTo(3);
+        assertThat(upserted()).containsExactlyInAnyOrderElementsOf(rows(List.of(first, sixth)));
+        assertThat(deleted()).containsExactly(
+                tuple(PERIOD_ID, cleared.getDate(), cleared.getPeriod().name(), cleared.getPosition().name()));
+        // Whoever lost a slot, gained one, or held the cleared one
+        assertThat(result.affectedUserIds()).containsExactlyInAnyOrder(
+                999L, 998L, first.getUserId(), sixth.getUserId(), cleared.getUserId());
+    }
+
+    @Test
+    void unchangedRepublishWritesNothing() {
+        List<AssignedSlot> live = grid(200);
+        givenPeriod(live.stream().map(a -> (SnapshotRow) a).toList(), live);
+
+        SnapshotResult result = service.snapshotPeriod(PERIOD_ID);
+
+        assertThat(result.rowsWritten()).isZero();
+        assertThat(result.affectedUserIds()).isEmpty();
+        verify(jdbc, never()).batchUpdate(anyString(), anyList());
+    }
+
+    @Test
+    void slotsAreWrittenInOneBatchWhateverTheStaffSize() {
+        for (int staff : new int[]{20, 200}) {
+            clearInvocations(jdbc);
+            givenPeriod(List.of(), grid(staff));
+
+            service.snapshotPeriod(PERIOD_ID);
+
+            verify(jdbc, times(1)).batchUpdate(anyString(), anyList());
+            verify(jdbc, times(1)).update(anyString(), any(Object[].class)); // the revision mark
+        }
+        verify(versionService, times(2)).recordVersion(anyLong(), any(), any(), any());
+    }
+
+    private void givenPeriod(List<SnapshotRow> published, List<AssignedSlot> live) {
+        SchedulePeriod sp = mock(SchedulePeriod.class);
+        when(sp.getId()).thenReturn(PERIOD_ID);
+        when(sp.getStatus()).thenReturn("POSTED");
+        when(sp.getStartDate()).thenReturn(START);
+        when(sp.getEndDate()).thenReturn(START.plusDays(DAYS - 1));
+        when(periodRepo.findById(PERIOD_ID)).thenReturn(Optional.of(sp));
+        when(publishedRepo.findSnapshotRowsByPeriodId(PERIOD_ID)).thenReturn(published);
+        when(assignmentRepo.findAssignedSlotsByDateBetween(START, START.plusDays(DAYS - 1))).thenReturn(live);
+    }
+
+    // Rows passed to the upsert batch, as (period id, date, period, position, user id)
+    private List<Tuple> upserted() {
+        return batchRows("on conflict");
+    }
+
+    private List<Tuple> deleted() {
+        return batchRows("delete from");
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<Tuple> batchRows(String sqlFragment) {
+        ArgumentCaptor<List<Object[]>> rows = ArgumentCaptor.forClass(List.class);
+        verify(jdbc).batchUpdate(contains(sqlFragment), rows.capture());
+        return rows.getValue().stream().map(Tuple::new).collect(Collectors.toList());
+    }
+
+    private static List<Tuple> rows(List<AssignedSlot> slots) {
+        return slots.stream()
+                .map(a -> tuple(PERIOD_ID, a.getDate(), a.getPeriod().name(), a.getPosition().name(), a.getUserId()))
+                .toList();
+    }
+
+    // Every slot of every day filled, rotating through the staff
+    private static List<AssignedSlot> grid(int staff) {
+        List<AssignedSlot> rows = new ArrayList<>();
+        int next = 0;
+        for (int d = 0; d < DAYS; d++) {
+            for (RoleOption ro : ALL_ROLES) {
+                rows.add(new Row(START.plusDays(d), ro.period(), ro.position(), 1L + next++ % staff));
+            }
+        }
+        return rows;
+    }
+
+    private record Row(LocalDate date, ShiftPeriod period, Position position, Long userId)
+            implements AssignedSlot, SnapshotRow {
+        @Override public LocalDate getDate() { return date; }
+        @Override public ShiftPeriod getPeriod() { return period; }
+        @Override public Position getPosition() { return position; }
+        @Override public Long getUserId() { return userId; }
+        @Override public String getFullName() { return "emp" + userId; }
+    }
+}
@@ -0,0 +1,148 @@
+package com.resto.scheduler.service.impl;
+
+import com.resto.scheduler.service.SmsDeliveryException;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import software.amazon.awssdk.auth.credentials.AwsBasicCredentials;
+import software.amazon.awssdk.auth.credentials.StaticCredentialsProvider;
+import software.amazon.awssdk.awscore.retry.AwsRetryStrategy;
+import software.amazon.awssdk.regions.Region;
+import software.amazon.awssdk.services.sns.SnsAsyncClient;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.catchThrowable;
+
+/**
+ * SnsAsyncSmsService against a local HTTP stub standing in for SNS (the aws.sns.endpoint
+ * override), checking how each provider answer maps to success or a retryable/permanent
+ * SmsDeliveryException. The SDK's own retries are off so each send is one request.
+ */
+class SnsAsyncSmsServiceTest {
+
+    private static final String PHONE = "+12065550101";
+
+    private HttpServer server;
+    private SnsAsyncClient client;
+    private SnsAsyncSmsService service;
+    private volatile int status;
+    private volatile String body;
+    private volatile String lastRequest;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/", exchange -> {
+            lastRequest = URLDecoder.decode(new String(exchange.getRequestBody().readAllBytes(),
+                    StandardCharsets.UTF_8), StandardCharsets.UTF_8);
+            byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().set("Content-Type", "text/xml");
+            exchange.sendResponseHeaders(status, bytes.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(bytes);
+            }
+        });
+        server.start();
+
+        // Built like AwsSnsConfig#snsAsyncClient with the endpoint override, plus fixed credentials
+        client = SnsAsyncClient.builder()
+                .region(Region.US_WEST_2)
+                .endpointOverride(URI.create("http://127.0.0.1:" + server.getAddress().getPort()))
+                .credentialsProvider(StaticCredentialsProvider.create(AwsBasicCredentials.create("test", "test")))
+                .overrideConfiguration(c -> c
+                        .retryStrategy(AwsRetryStrategy.doNotRetry())
+                        .apiCallTimeout(Duration.ofSeconds(5)))
+                .build();
+        service = new SnsAsyncSmsService(client);
+    }
+
+    @AfterEach
+    void tearDown() {
+        client.close();
+        server.stop(0);
+    }
+
+    @Test
+    void publishSuccessCompletesTheFuture() throws Exception {
+        respond(200, """
+                <PublishResponse xmlns="http://sns.amazonaws.com/doc/2010-03-31/">
+                  <PublishResult><MessageId>5b7c2f0e-1d4a-4c3e-9f0a-2b1c3d4e5f60</MessageId></PublishResult>
+                  <ResponseMetadata><RequestId>req-1</RequestId></ResponseMetadata>
+                </PublishResponse>""");
+
+        service.sendAsync(PHONE, "Schedule published", Runnable::run).get(10, TimeUnit.SECONDS);
+
+        assertThat(lastRequest).contains("Action=Publish", "PhoneNumber=" + PHONE, "Message=Schedule published");
+    }
+
+    @Test
+    void throttlingIsRetryable() {
+        respond(400, error("Sender", "Throttling", "Rate exceeded"));
+
+        SmsDeliveryException ex = failure(service.sendAsync(PHONE, "hi", Runnable::run));
+
+        assertThat(ex.isRetryable()).isTrue();
+        assertThat(ex.getMessage()).contains("400", "Rate exceeded");
+    }
+
+    @Test
+    void serverErrorIsRetryable() {
+        respond(500, error("Receiver", "InternalError", "Internal failure"));
+
+        SmsDeliveryException ex = failure(service.sendAsync(PHONE, "hi", Runnable::run));
+
+        assertThat(ex.isRetryable()).isTrue();
+        assertThat(ex.getMessage()).contains("500");
+    }
+
+    @Test
+    void invalidParameterIsPermanent() {
+        respond(400, error("Sender", "InvalidParameter", "Invalid parameter: PhoneNumber"));
+
+        SmsDeliveryException ex = failure(service.sendAsync(PHONE, "hi", Runnable::run));
+
+        assertThat(ex.isRetryable()).isFalse();
+        assertThat(ex.getMessage()).contains("Invalid parameter: PhoneNumber");
+    }
+
+    @Test
+    void blockingSendThrowsTheSameException() {
+        respond(400, error("Sender", "InvalidParameter", "Invalid parameter: PhoneNumber"));
+
+        assertThatThrownBy(() -> service.send(PHONE, "hi"))
+                .isInstanceOfSatisfying(SmsDeliveryException.class, ex -> assertThat(ex.isRetryable()).isFalse());
+    }
+
+    private void respond(int status, String body) {
+        this.status = status;
+        this.body = body;
+    }
+
+    private static SmsDeliveryException failure(CompletableFuture<Void> future) {
+        Throwable thrown = catchThrowable(() -> future.get(10, TimeUnit.SECONDS));
+        assertThat(thrown).isInstanceOf(ExecutionException.class).hasCauseInstanceOf(SmsDeliveryException.class);
+        return (SmsDeliveryException) thrown.getCause();
+    }
+
+    // SNS (query protocol) error body
+    private static String error(String type, String code, String message) {
+        return """
+                <ErrorResponse xmlns="http://sns.amazonaws.com/doc/2010-03-31/">
+                  <Error><Type>%s</Type><Code>%s</Code><Message>%s</Message></Error>
+                  <RequestId>req-2</RequestId>
+                </ErrorResponse>""".formatted(type, code, message);
+    }
+}